@@ -0,0 +1,188 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * A restaurant.db with a generated order history, opened through DatabaseManager for
+ * one benchmark trial.
+ * Each dataset is generated once into java.io.tmpdir/restaurant-benchmarks and copied
+ * to a fresh temp file per trial, so write benchmarks never see each other's rows.
+ * The file name holds the order count, index version, seed and generation date, so a
+ * dataset built by an older schema, or on another day (dates are relative to today, as
+ * the "last month" reports are), is regenerated instead of being silently reused.
+ * Orders have one to three lines, spread over the last DAYS days and CLIENTS clients.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+    public static final int DAYS = 365;
+    public static final int CLIENTS = 10_000;
+    public static final int MENU_ITEMS = 60;
+
+    private static final String[] CATEGORIES = { "Starters", "Mains", "Sides", "Desserts", "Drinks" };
+    private static final String[] STATUSES = { Order.STATUS_COMPLETED, Order.STATUS_COMPLETED,
+            Order.STATUS_COMPLETED, Order.STATUS_CANCELLED, Order.STATUS_PENDING };
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final long SEED = 42;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int orders;
+
+    private Path databaseFile;
+    private PrintStream stdout;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException, SQLException {
+        Path dataset = dataset(orders);
+        databaseFile = Files.createTempFile("restaurant-benchmark", ".db");
+        Files.copy(dataset, databaseFile, StandardCopyOption.REPLACE_EXISTING);
+
+        // DatabaseManager logs every order and reservation; keep it out of the JMH output
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        DatabaseManager.initialize(databaseFile.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        DatabaseManager.close();
+        System.setOut(stdout);
+        Files.deleteIfExists(databaseFile);
+        Files.deleteIfExists(Path.of(databaseFile + "-wal"));
+        Files.deleteIfExists(Path.of(databaseFile + "-shm"));
+    }
+
+    // Name and number of generated client i (0 <= i < CLIENTS)
+    public static String clientName(int i) {
+        return "Client " + i;
+    }
+
+    public static String clientNumber(int i) {
+        return String.format("%010d", i);
+    }
+
+    // Name of generated menu item i (0 <= i < MENU_ITEMS)
+    public static String menuItemName(int i) {
+        return "Dish " + i;
+    }
+
+    // The cached dataset file, generated on first use
+    static synchronized Path dataset(int orders) throws IOException, SQLException {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "restaurant-benchmarks");
+        String prefix = "orders-" + orders + "-";
+        Path dataset = directory.resolve(prefix + "i" + IndexManager.latestVersion() + "-s" + SEED + "-"
+                + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + ".db");
+        if (Files.exists(dataset)) {
+            return dataset;
+        }
+        Files.createDirectories(directory);
+        // Older datasets of this size (including unversioned orders-N.db files) are stale now
+        String unversioned = "orders-" + orders + ".db";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path stale : files.filter(file -> file.getFileName().toString().startsWith(prefix)
+                    || file.getFileName().toString().equals(unversioned)).toList()) {
+                Files.deleteIfExists(stale);
+            }
+        }
+        Path partial = directory.resolve(dataset.getFileName() + ".partial");
+
+        System.out.println("Generating benchmark dataset with " + orders + " orders: " + dataset);
+        DatabaseManager.initialize(partial.toString());
+        try (ConnectionPool.Lease lease = DatabaseManager.writer()) {
+            DatabaseManager.inTransaction(lease.connection(), conn -> {
+                insertMenu(conn);
+                insertClients(conn);
+                insertOrders(conn, orders);
+                return SalesRollup.rebuild(conn);
+            });
+        } finally {
+            DatabaseManager.close();
+        }
+        Files.deleteIfExists(Path.of(partial + "-wal"));
+        Files.deleteIfExists(Path.of(partial + "-shm"));
+        Files.move(partial, dataset, StandardCopyOption.ATOMIC_MOVE);
+        return dataset;
+    }
+
+    private static void insertMenu(Connection conn) throws SQLException {
+        String query = "INSERT INTO menu_items (name, price, available, category) VALUES (?, ?, 1, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < MENU_ITEMS; i++) {
+                pstmt.setString(1, menuItemName(i));
+                pstmt.setDouble(2, price(i));
+                pstmt.setString(3, CATEGORIES[i % CATEGORIES.length]);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void insertClients(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO client (name, number) VALUES (?, ?)")) {
+            for (int i = 0; i < CLIENTS; i++) {
+                pstmt.setString(1, clientName(i));
+                pstmt.setString(2, clientNumber(i));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void insertOrders(Connection conn, int orders) throws SQLException {
+        String query = "INSERT INTO orders (order_id, client_name, client_number, table_number, item_name, "
+                + "quantity, price, order_date, status, order_day) VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?, ?)";
+        SplittableRandom random = new SplittableRandom(SEED);
+        LocalDateTime start = LocalDate.now().minusDays(DAYS).atStartOfDay();
+        // Order dates increase with the order id, as they do in the restaurant
+        long secondsPerOrder = Math.max(1, DAYS * 86_400L / orders);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (int orderId = 1; orderId <= orders; orderId++) {
+                int client = random.nextInt(CLIENTS);
+                LocalDateTime date = start.plusSeconds(orderId * secondsPerOrder);
+                String status = STATUSES[random.nextInt(STATUSES.length)];
+                int lines = 1 + random.nextInt(3);
+                for (int line = 0; line < lines; line++) {
+                    int item = random.nextInt(MENU_ITEMS);
+                    pstmt.setInt(1, orderId);
+                    pstmt.setString(2, clientName(client));
+                    pstmt.setString(3, clientNumber(client));
+                    pstmt.setString(4, menuItemName(item));
+                    pstmt.setInt(5, 1 + random.nextInt(4));
+                    pstmt.setDouble(6, price(item));
+                    pstmt.setString(7, date.format(DATE_FORMAT));
+                    pstmt.setString(8, status);
+                    pstmt.setLong(9, DatabaseManager.toOrderDay(date.toLocalDate()));
+                    pstmt.addBatch();
+                }
+                if (orderId % 1000 == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static double price(int item) {
+        return 6.0 + (item % 15);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower.
+ *
+ * Run with: java -cp benchmarks.jar com.example.CompareResults baseline.json current.json [max-slowdown-%]
+ *
+ * A benchmark regresses when it is more than max-slowdown-% (default 10) slower than
+ * the baseline and the difference is larger than both runs' error margins. Exits with
+ * status 1 if any benchmark regressed.
+ */
+public class CompareResults {
+    private static final double DEFAULT_MAX_SLOWDOWN = 10.0;
+
+    // Score of one benchmark and parameter combination
+    private record Score(String mode, double score, double error, String unit) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults baseline.json current.json [max-slowdown-%]");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+        double maxSlowdown = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_MAX_SLOWDOWN;
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null || !before.unit().equals(after.unit())) {
+                System.out.printf("  new        %s: %.3f %s%n", entry.getKey(), after.score(), after.unit());
+                continue;
+            }
+            // Positive when slower: time per operation went up, or throughput went down
+            double change = after.mode().equals("thrpt")
+                    ? (before.score() - after.score()) / before.score() * 100
+                    : (after.score() - before.score()) / before.score() * 100;
+            boolean significant = Math.abs(after.score() - before.score()) > before.error() + after.error();
+            boolean regressed = change > maxSlowdown && significant;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("  %-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "ok",
+                    entry.getKey(), before.score(), after.score(), after.unit(), change);
+        }
+
+        System.out.println(regressions == 0 ? "No regressions" : regressions + " benchmarks regressed");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    // Scores by "benchmark {param=value, ...}"
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object element : (List<?>) Json.parse(Files.readString(file))) {
+            Map<?, ?> result = (Map<?, ?>) element;
+            String key = (String) result.get("benchmark");
+            if (result.get("params") instanceof Map<?, ?> params) {
+                key += " " + new TreeMap<>(params);
+            }
+            Map<?, ?> metric = (Map<?, ?>) result.get("primaryMetric");
+            // scoreError is "NaN" (a string) when there was a single iteration
+            double error = metric.get("scoreError") instanceof Double value ? value : 0;
+            scores.put(key, new Score((String) result.get("mode"), (Double) metric.get("score"), error,
+                    (String) metric.get("scoreUnit")));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the menu, with and without an uploaded image on every item.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MenuBenchmarks {
+    @Param({ "false", "true" })
+    public boolean withImages;
+
+    // Runs after BenchmarkDatabase has opened the trial's database
+    @Setup(Level.Trial)
+    public void uploadImages(BenchmarkDatabase db) throws IOException {
+        if (!withImages) {
+            return;
+        }
+        for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+            DatabaseManager.updateMenuItem(item.getId(), item.getName(), item.getCategory(), item.getPrice(),
+                    item.isAvailable(), Workload.photo(item.getId()));
+        }
+    }
+
+    @Benchmark
+    public List<MenuItem> getAllMenuItems(BenchmarkDatabase db) {
+        return DatabaseManager.getAllMenuItems();
+    }
+}
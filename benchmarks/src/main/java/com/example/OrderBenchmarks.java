@@ -0,0 +1,52 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing orders and the order queries behind the client and admin order screens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBenchmarks {
+    private final SplittableRandom random = new SplittableRandom();
+
+    // One line for a known client, committed through the writer like a checkout
+    @Benchmark
+    public boolean addOrder(BenchmarkDatabase db) {
+        int client = random.nextInt(BenchmarkDatabase.CLIENTS);
+        return DatabaseManager.addOrder(BenchmarkDatabase.clientName(client), BenchmarkDatabase.clientNumber(client),
+                BenchmarkDatabase.menuItemName(random.nextInt(BenchmarkDatabase.MENU_ITEMS)), 1, 10.0,
+                Order.getCurrentTimestamp());
+    }
+
+    // Every order with its lines (the admin orders table before paging)
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<OrderSummary> getOrderSummaries(BenchmarkDatabase db) {
+        return DatabaseManager.getOrderSummaries();
+    }
+
+    // The order history of one client
+    @Benchmark
+    public List<Order> getClientOrders(BenchmarkDatabase db) {
+        int client = random.nextInt(BenchmarkDatabase.CLIENTS);
+        return DatabaseManager.getClientOrders(BenchmarkDatabase.clientName(client),
+                BenchmarkDatabase.clientNumber(client));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The four queries of the admin reports screen, over all time and over the last month.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmarks {
+
+    @Param({ "all", "month" })
+    public String range;
+
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void selectRange() {
+        if (range.equals("month")) {
+            to = LocalDate.now();
+            from = to.minusDays(30);
+        }
+    }
+
+    @Benchmark
+    public int totalClients(BenchmarkDatabase db) throws SQLException {
+        return SalesReport.getTotalClients();
+    }
+
+    @Benchmark
+    public int totalOrders(BenchmarkDatabase db) throws SQLException {
+        return SalesReport.getTotalOrders(from, to);
+    }
+
+    @Benchmark
+    public double totalRevenue(BenchmarkDatabase db) throws SQLException {
+        return SalesReport.getTotalRevenue(from, to);
+    }
+
+    @Benchmark
+    public SalesReport.ItemQuantity mostOrderedItem(BenchmarkDatabase db) throws SQLException {
+        return SalesReport.getMostOrderedItem(from, to);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking and cancelling a table. Both run in one invocation so every iteration starts
+ * from the same set of free tables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationBenchmarks {
+    // The ten default tables
+    private static final int TABLES = 10;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    @Benchmark
+    public boolean addAndCancelReservation(BenchmarkDatabase db) {
+        int client = random.nextInt(BenchmarkDatabase.CLIENTS);
+        String name = BenchmarkDatabase.clientName(client);
+        String number = BenchmarkDatabase.clientNumber(client);
+        boolean added = DatabaseManager.addReservation(name, number, 1 + random.nextInt(TABLES), 2);
+        return DatabaseManager.cancelClientReservation(name, number) && added;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example;
+
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, writing JSON results to
+ * jmh-result.json unless -rf or -rff are given.
+ * Compare two result files with CompareResults.
+ */
+public class RunBenchmarks {
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        if (!options.getResultFormat().hasValue()) {
+            jmhArgs.addAll(List.of("-rf", "json"));
+        }
+        if (!options.getResult().hasValue()) {
+            jmhArgs.addAll(List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
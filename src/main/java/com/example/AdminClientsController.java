@@ -4,16 +4,15 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
-public class AdminClientsController {
+public class AdminClientsController implements ScreenController {
 
     @FXML
     private TableView<Client> clientsTable;
@@ -27,9 +26,15 @@ public class AdminClientsController {
     @FXML
     private TableColumn<Client, String> numberColumn;
 
+    @FXML
+    private TextField searchField;
+
     @FXML
     private Label statusLabel;
 
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+    private PagedTable<Client> pagedClients;
+
     @FXML
     public void initialize() {
         // Set up table columns
@@ -37,32 +42,66 @@ public class AdminClientsController {
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         numberColumn.setCellValueFactory(new PropertyValueFactory<>("number"));
 
-        loadClients();
+        // Clients are fetched a page at a time as the table scrolls
+        requests.cancelWhenRemoved(statusLabel);
+        clientsTable.setPlaceholder(new Label("No clients"));
+        pagedClients = new PagedTable<>(clientsTable, requests, "id", AdminClientsController::loadClientPage)
+                .sortBy(idColumn, "id")
+                .sortBy(nameColumn, "name")
+                .sortBy(numberColumn, "number")
+                .setOnLoaded(() -> statusLabel.setText("Showing " + clientsTable.getItems().size() + " clients"))
+                .setOnError(e -> statusLabel.setText("Error loading clients: " + e.getMessage()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> pagedClients.setFilter(newText));
     }
 
-    private void loadClients() {
-        ObservableList<Client> clients = FXCollections.observableArrayList();
-
-        String query = "SELECT id, name, number FROM client ORDER BY id";
-
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+    @Override
+    public void onShow() {
+        pagedClients.reload();
+    }
 
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                String name = rs.getString("name");
-                String number = rs.getString("number");
-                clients.add(new Client(id, name, number));
+    /**
+     * One page of clients; request.filter matches part of the name or number.
+     * Runs on a background thread; a database error is thrown so the table can report it.
+     */
+    static List<Client> loadClientPage(PageRequest<Client> request) {
+        List<Client> clients = new ArrayList<>();
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+             PreparedStatement pstmt = lease.connection().prepareStatement(clientPageQuery(request))) {
+            int index = 1;
+            Client anchor = request.anchor();
+            if (anchor != null) {
+                switch (request.sortColumn()) {
+                    case "name" -> pstmt.setString(index++, anchor.getName());
+                    case "number" -> pstmt.setString(index++, anchor.getNumber());
+                    default -> { }
+                }
+                pstmt.setInt(index++, anchor.getId());
             }
+            if (request.filter() != null) {
+                String pattern = "%" + request.filter() + "%";
+                pstmt.setString(index++, pattern);
+                pstmt.setString(index++, pattern);
+            }
+            pstmt.setInt(index, request.limit());
 
-            clientsTable.setItems(clients);
-            statusLabel.setText("Loaded " + clients.size() + " clients");
-
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clients.add(new Client(rs.getInt("id"), rs.getString("name"), rs.getString("number")));
+                }
+            }
         } catch (SQLException e) {
-            statusLabel.setText("Error loading clients: " + e.getMessage());
-            e.printStackTrace();
+            throw new IllegalStateException(e.getMessage(), e);
         }
+
+        return request.inDisplayOrder(clients);
+    }
+
+    // Statement of loadClientPage for this request
+    static String clientPageQuery(PageRequest<?> request) {
+        return "SELECT id, name, number FROM client WHERE 1 = 1" +
+                (request.anchor() != null ? " AND " + request.seek("id") : "") +
+                (request.filter() != null ? " AND (name LIKE ? OR number LIKE ?)" : "") +
+                " ORDER BY " + request.orderBy("id") + " LIMIT ?";
     }
 
     @FXML
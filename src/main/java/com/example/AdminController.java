@@ -5,7 +5,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Label;
 import java.io.IOException;
 
-public class AdminController {
+public class AdminController implements ScreenController {
 
     @FXML
     private Label adminCodeLabel;
@@ -13,8 +13,32 @@ public class AdminController {
     @FXML
     private Label statusLabel;
 
+    @FXML
+    private Label storageLabel;
+
     private String adminCode;
 
+    @Override
+    public void onShow() {
+        statusLabel.setText("");
+        showStorageStatus();
+    }
+
+    // Show WAL size and last checkpoint so write latency can be checked during service
+    private void showStorageStatus() {
+        java.time.LocalDateTime lastCheckpoint = DatabaseManager.getLastCheckpointTime();
+        String checkpointText = lastCheckpoint != null
+                ? lastCheckpoint.format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                : "not yet";
+        StatementCache.Stats statements = DatabaseManager.getStatementCacheStats();
+        storageLabel.setText(String.format("WAL size: %.1f KB | Last checkpoint: %s | Statement cache: %.0f%% hits",
+                DatabaseManager.getWalSizeBytes() / 1024.0, checkpointText,
+                statements != null ? statements.getHitRatio() * 100 : 0));
+        // Full cache counters on hover
+        storageLabel.setTooltip(new javafx.scene.control.Tooltip(
+                "Statement cache: " + statements + "\nMenu image cache: " + ImageCache.menu().getStats()));
+    }
+
     // Set admin information when navigating to this page
     public void setAdminInfo(String code) {
         this.adminCode = code;
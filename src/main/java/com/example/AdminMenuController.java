@@ -1,5 +1,6 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
@@ -11,8 +12,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.function.Supplier;
 
-public class AdminMenuController {
+public class AdminMenuController implements ScreenController {
 
     @FXML
     private TableView<MenuItem> menuTable;
@@ -20,6 +22,9 @@ public class AdminMenuController {
     @FXML
     private TableColumn<MenuItem, String> itemNameColumn;
 
+    @FXML
+    private TableColumn<MenuItem, String> categoryColumn;
+
     @FXML
     private TableColumn<MenuItem, Double> priceColumn;
 
@@ -41,28 +46,75 @@ public class AdminMenuController {
     @FXML
     private Label statusLabel;
 
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+    private boolean saving; // a change is being written
+
     @FXML
     public void initialize() {
+        // Drop a menu load still running when the admin leaves this screen
+        requests.cancelWhenRemoved(statusLabel);
+
         // Set up table columns
         itemNameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
+        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("category"));
         priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
         availableColumn.setCellValueFactory(new PropertyValueFactory<>("available"));
 
-        loadMenu();
-
         // Enable/disable buttons based on selection
-        menuTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
-            boolean hasSelection = newSelection != null;
-            editButton.setDisable(!hasSelection);
-            deleteButton.setDisable(!hasSelection);
-            toggleButton.setDisable(!hasSelection);
-        });
+        menuTable.getSelectionModel().selectedItemProperty().addListener(
+                (obs, oldSelection, newSelection) -> updateButtons());
     }
 
-    private void loadMenu() {
-        ObservableList<MenuItem> menuItems = FXCollections.observableArrayList(DatabaseManager.getAllMenuItems());
-        menuTable.setItems(menuItems);
-        statusLabel.setText("Loaded " + menuItems.size() + " menu items");
+    @Override
+    public void onShow() {
+        loadMenu(null);
+    }
+
+    // Reload the table in the background, then show message (or the item count when null)
+    private void loadMenu(String message) {
+        requests.submit("menu", DatabaseManager::getAllMenuItems, items -> {
+            ObservableList<MenuItem> menuItems = FXCollections.observableArrayList(items);
+            menuTable.setItems(menuItems);
+            statusLabel.setText(message != null ? message : "Loaded " + menuItems.size() + " menu items");
+        }, e -> statusLabel.setText("Error loading menu items"));
+    }
+
+    /**
+     * Save a menu change in the background; images are processed there too, so a large
+     * photo never freezes the screen. Not tied to this screen: leaving it must not cancel
+     * the write, only skip the feedback. The buttons stay disabled until it is saved.
+     */
+    private void saveChange(String progress, Supplier<Boolean> change, String succeeded, String failed) {
+        saving = true;
+        updateButtons();
+        statusLabel.setText(progress);
+
+        AsyncDatabase.supply(change)
+                .exceptionally(e -> {
+                    System.err.println(failed + ": " + e.getMessage());
+                    return false;
+                })
+                .thenAccept(success -> Platform.runLater(() -> {
+                    saving = false;
+                    updateButtons();
+                    if (statusLabel.getScene() == null) {
+                        // The admin has left the screen; it reloads the menu when shown again
+                        return;
+                    }
+                    if (success) {
+                        loadMenu(succeeded);
+                    } else {
+                        statusLabel.setText(failed);
+                    }
+                }));
+    }
+
+    private void updateButtons() {
+        boolean hasSelection = menuTable.getSelectionModel().getSelectedItem() != null;
+        addButton.setDisable(saving);
+        editButton.setDisable(saving || !hasSelection);
+        deleteButton.setDisable(saving || !hasSelection);
+        toggleButton.setDisable(saving || !hasSelection);
     }
 
     @FXML
@@ -70,14 +122,10 @@ public class AdminMenuController {
         Dialog<MenuItem> dialog = createMenuItemDialog("Add Menu Item", null);
         Optional<MenuItem> result = dialog.showAndWait();
 
-        result.ifPresent(item -> {
-            if (DatabaseManager.addMenuItem(item.getName(), item.getPrice(), item.isAvailable(), item.getImageData())) {
-                loadMenu();
-                statusLabel.setText("Menu item added successfully");
-            } else {
-                statusLabel.setText("Error adding menu item");
-            }
-        });
+        result.ifPresent(item -> saveChange("Adding menu item...",
+                () -> DatabaseManager.addMenuItem(item.getName(), item.getCategory(), item.getPrice(),
+                        item.isAvailable(), item.getImageData()),
+                "Menu item added successfully", "Error adding menu item"));
     }
 
     @FXML
@@ -89,15 +137,14 @@ public class AdminMenuController {
         Dialog<MenuItem> dialog = createMenuItemDialog("Edit Menu Item", selectedItem);
         Optional<MenuItem> result = dialog.showAndWait();
 
-        result.ifPresent(item -> {
-            if (DatabaseManager.updateMenuItem(selectedItem.getId(), item.getName(), item.getPrice(),
-                    item.isAvailable(), item.getImageData())) {
-                loadMenu();
-                statusLabel.setText("Menu item updated successfully");
-            } else {
-                statusLabel.setText("Error updating menu item");
-            }
-        });
+        // An unchanged image is kept by hash; its bytes are never loaded here
+        result.ifPresent(item -> saveChange("Updating menu item...",
+                () -> item.getImageHash() != null
+                        ? DatabaseManager.updateMenuItemDetails(selectedItem.getId(), item.getName(),
+                                item.getCategory(), item.getPrice(), item.isAvailable())
+                        : DatabaseManager.updateMenuItem(selectedItem.getId(), item.getName(), item.getCategory(),
+                                item.getPrice(), item.isAvailable(), item.getImageData()),
+                "Menu item updated successfully", "Error updating menu item"));
     }
 
     @FXML
@@ -113,12 +160,8 @@ public class AdminMenuController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (DatabaseManager.deleteMenuItem(selectedItem.getId())) {
-                loadMenu();
-                statusLabel.setText("Menu item deleted successfully");
-            } else {
-                statusLabel.setText("Error deleting menu item");
-            }
+            saveChange("Deleting menu item...", () -> DatabaseManager.deleteMenuItem(selectedItem.getId()),
+                    "Menu item deleted successfully", "Error deleting menu item");
         }
     }
 
@@ -136,12 +179,9 @@ public class AdminMenuController {
 
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (DatabaseManager.toggleMenuItemAvailability(selectedItem.getId())) {
-                loadMenu();
-                statusLabel.setText("Menu item availability toggled successfully");
-            } else {
-                statusLabel.setText("Error toggling menu item availability");
-            }
+            saveChange("Updating availability...",
+                    () -> DatabaseManager.toggleMenuItemAvailability(selectedItem.getId()),
+                    "Menu item availability toggled successfully", "Error toggling menu item availability");
         }
     }
 
@@ -159,6 +199,12 @@ public class AdminMenuController {
         nameField.setPromptText("Item name");
         TextField priceField = new TextField();
         priceField.setPromptText("Price");
+        // Pick an existing category or type a new one
+        ComboBox<String> categoryField = new ComboBox<>(FXCollections.observableArrayList(
+                menuTable.getItems().stream().map(MenuItem::getCategory)
+                        .filter(java.util.Objects::nonNull).distinct().sorted().toList()));
+        categoryField.setEditable(true);
+        categoryField.setPromptText("Category");
         CheckBox availableCheckBox = new CheckBox("Available");
         Label imageLabel = new Label("No image selected");
         Button browseButton = new Button("Browse Image...");
@@ -185,10 +231,10 @@ public class AdminMenuController {
         if (existingItem != null) {
             nameField.setText(existingItem.getName());
             priceField.setText(String.valueOf(existingItem.getPrice()));
+            categoryField.setValue(existingItem.getCategory());
             availableCheckBox.setSelected(existingItem.isAvailable());
-            selectedImageData[0] = existingItem.getImageData();
-            if (existingItem.getImageData() != null) {
-                imageLabel.setText("Existing image (" + (existingItem.getImageData().length / 1024) + " KB)");
+            if (existingItem.hasImage()) {
+                imageLabel.setText("Existing image (" + (existingItem.getImageSize() / 1024) + " KB)");
             }
         }
 
@@ -202,10 +248,12 @@ public class AdminMenuController {
         grid.add(nameField, 1, 0);
         grid.add(new Label("Price:"), 0, 1);
         grid.add(priceField, 1, 1);
-        grid.add(availableCheckBox, 1, 2);
-        grid.add(new Label("Image:"), 0, 3);
-        grid.add(imageLabel, 1, 3);
-        grid.add(browseButton, 2, 3);
+        grid.add(new Label("Category:"), 0, 2);
+        grid.add(categoryField, 1, 2);
+        grid.add(availableCheckBox, 1, 3);
+        grid.add(new Label("Image:"), 0, 4);
+        grid.add(imageLabel, 1, 4);
+        grid.add(browseButton, 2, 4);
 
         dialog.getDialogPane().setContent(grid);
 
@@ -216,12 +264,22 @@ public class AdminMenuController {
                     String name = nameField.getText().trim();
                     double price = Double.parseDouble(priceField.getText());
                     boolean available = availableCheckBox.isSelected();
+                    String category = categoryField.getEditor().getText();
 
                     if (name.isEmpty() || price < 0) {
                         return null;
                     }
 
-                    return new MenuItem(name, price, available, selectedImageData[0]);
+                    // Keep the stored image unless a new file was chosen
+                    MenuItem item;
+                    if (selectedImageData[0] == null && existingItem != null && existingItem.getImageHash() != null) {
+                        item = new MenuItem(0, name, price, available, existingItem.getImageHash(),
+                                existingItem.getImageSize());
+                    } else {
+                        item = new MenuItem(name, price, available, selectedImageData[0]);
+                    }
+                    item.setCategory(category);
+                    return item;
                 } catch (NumberFormatException e) {
                     return null;
                 }
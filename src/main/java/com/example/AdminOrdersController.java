@@ -1,16 +1,16 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 
 /**
  * Controller for the Manage Orders (Admin) page.
  * Shows order summaries on the left and order details on the right.
  */
-public class AdminOrdersController {
+public class AdminOrdersController implements ScreenController {
 
     // SplitPane layout
     @FXML
@@ -29,6 +29,8 @@ public class AdminOrdersController {
     private TableColumn<OrderSummary, Double> totalColumn;
     @FXML
     private TableColumn<OrderSummary, String> statusColumn;
+    @FXML
+    private ComboBox<String> statusFilter;
 
     // Right side - Order details
     @FXML
@@ -58,12 +60,56 @@ public class AdminOrdersController {
 
     private OrderSummary selectedOrder;
 
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+    private PagedTable<OrderSummary> pagedOrders;
+    private ChangeFeed.Subscription changes;
+
+    private static final String ALL_STATUSES = "All";
+
     @FXML
     public void initialize() {
+        // Drop queries still running when the admin leaves this screen
+        requests.cancelWhenRemoved(statusLabel);
         setupOrdersTable();
         setupOrderItemsTable();
+    }
+
+    @Override
+    public void onShow() {
+        // New orders and status changes made elsewhere show up without reloading
+        changes = ChangeFeed.subscribeOnFx(this::applyChange);
         loadOrders();
-        statusLabel.setText("Orders loaded from database");
+    }
+
+    @Override
+    public void onHide() {
+        if (changes != null) {
+            changes.close();
+            changes = null;
+        }
+    }
+
+    private void applyChange(ChangeFeed.Change change) {
+        if (change instanceof ChangeFeed.OrderPlaced placed) {
+            String filter = statusFilter.getValue();
+            if (ALL_STATUSES.equals(filter) || OrderSummary.STATUS_PENDING.equals(filter)) {
+                pagedOrders.addNewest(new OrderSummary(placed.orderId(), placed.tableNumber(), placed.orderDate(),
+                        placed.total(), OrderSummary.STATUS_PENDING, placed.clientName(), placed.clientNumber(),
+                        null));
+            }
+            statusLabel.setText("New order #" + placed.orderId() + " from " + placed.clientName());
+        } else if (change instanceof ChangeFeed.OrderStatusChanged changed) {
+            for (OrderSummary order : ordersTable.getItems()) {
+                if (order.getOrderId() == changed.orderId()) {
+                    // The status cell is bound to the property and updates itself
+                    order.setStatus(changed.status());
+                    if (order == selectedOrder) {
+                        updateButtons();
+                    }
+                    break;
+                }
+            }
+        }
     }
 
     /**
@@ -76,13 +122,30 @@ public class AdminOrdersController {
         totalColumn.setCellValueFactory(new PropertyValueFactory<>("total"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
 
+        // Orders are fetched a page at a time as the table scrolls. Order ids are handed out
+        // in placement order, so the date column sorts by order_id too; totals are computed
+        // per order and cannot be seeked by index, so that column is not sortable.
+        ordersTable.setPlaceholder(new Label("No orders"));
+        pagedOrders = new PagedTable<>(ordersTable, requests, "order_id", DatabaseManager::getOrderSummaryPage)
+                .sortBy(orderIdColumn, "order_id")
+                .sortBy(dateColumn, "order_id")
+                .setOnLoaded(() -> statusLabel.setText("Showing " + ordersTable.getItems().size() + " orders"))
+                .setOnError(e -> statusLabel.setText("Error loading orders: " + e.getMessage()));
+
+        statusFilter.getItems().setAll(ALL_STATUSES, OrderSummary.STATUS_PENDING,
+                OrderSummary.STATUS_COMPLETED, OrderSummary.STATUS_CANCELLED);
+        statusFilter.setValue(ALL_STATUSES);
+        statusFilter.valueProperty().addListener((obs, oldStatus, newStatus) ->
+                pagedOrders.setFilter(ALL_STATUSES.equals(newStatus) ? null : newStatus));
+
         // Handle order selection
         ordersTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             selectedOrder = newSelection;
             if (newSelection != null) {
                 showOrderDetails(newSelection);
-                updateButtons();
             }
+            // The selected row may also be dropped when the table pages
+            updateButtons();
         });
     }
 
@@ -97,29 +160,27 @@ public class AdminOrdersController {
     }
 
     /**
-     * Load orders from the database
+     * Load the first page of orders in the background
      */
     private void loadOrders() {
-        try {
-            ObservableList<OrderSummary> orders = FXCollections.observableArrayList(
-                DatabaseManager.getOrderSummaries()
-            );
-            ordersTable.setItems(orders);
-            statusLabel.setText("Loaded " + orders.size() + " orders from database");
-        } catch (Exception e) {
-            statusLabel.setText("Error loading orders: " + e.getMessage());
-            e.printStackTrace();
-        }
+        statusLabel.setText("Loading orders...");
+        pagedOrders.reload();
     }
 
     /**
-     * Show details of the selected order
+     * Show details of the selected order; its items are fetched in the background
      */
     private void showOrderDetails(OrderSummary order) {
         orderDetailsLabel.setText("Order Details - Order #" + order.getOrderId());
-        ObservableList<Order> orderItems = FXCollections.observableArrayList(order.getOrderItems());
-        orderItemsTable.setItems(orderItems);
         totalAmountLabel.setText(String.format("Total Amount: $%.2f", order.getTotal()));
+        orderItemsTable.setItems(FXCollections.observableArrayList());
+        orderItemsTable.setPlaceholder(new Label("Loading items..."));
+
+        // Selecting another order cancels this one
+        requests.submit("details", order::getOrderItems, items -> {
+            orderItemsTable.setPlaceholder(new Label("No items"));
+            orderItemsTable.setItems(FXCollections.observableArrayList(items));
+        }, e -> orderItemsTable.setPlaceholder(new Label("Could not load items")));
     }
 
     /**
@@ -144,16 +205,7 @@ public class AdminOrdersController {
     @FXML
     private void handleMarkCompleted() {
         if (selectedOrder != null) {
-            boolean success = DatabaseManager.updateOrderStatus(selectedOrder.getOrderId(),
-                                                              OrderSummary.STATUS_COMPLETED);
-            if (success) {
-                selectedOrder.setStatus(OrderSummary.STATUS_COMPLETED);
-                ordersTable.refresh();
-                updateButtons();
-                statusLabel.setText("Order #" + selectedOrder.getOrderId() + " marked as completed");
-            } else {
-                statusLabel.setText("Error updating order status");
-            }
+            updateStatus(selectedOrder, OrderSummary.STATUS_COMPLETED, "marked as completed");
         }
     }
 
@@ -163,17 +215,40 @@ public class AdminOrdersController {
     @FXML
     private void handleCancelOrder() {
         if (selectedOrder != null) {
-            boolean success = DatabaseManager.updateOrderStatus(selectedOrder.getOrderId(),
-                                                              OrderSummary.STATUS_CANCELLED);
-            if (success) {
-                selectedOrder.setStatus(OrderSummary.STATUS_CANCELLED);
-                ordersTable.refresh();
-                updateButtons();
-                statusLabel.setText("Order #" + selectedOrder.getOrderId() + " cancelled");
-            } else {
-                statusLabel.setText("Error updating order status");
-            }
+            updateStatus(selectedOrder, OrderSummary.STATUS_CANCELLED, "cancelled");
+        }
+    }
+
+    /**
+     * Write the new status in the background; buttons stay disabled until it is saved.
+     * Not tied to this screen: leaving it must not cancel the write, only skip the feedback.
+     */
+    private void updateStatus(OrderSummary order, String status, String description) {
+        markCompletedButton.setDisable(true);
+        cancelOrderButton.setDisable(true);
+        statusLabel.setText("Updating order #" + order.getOrderId() + "...");
+
+        AsyncDatabase.supply(() -> DatabaseManager.updateOrderStatus(order.getOrderId(), status))
+                .exceptionally(e -> {
+                    System.err.println("Error updating order #" + order.getOrderId() + ": " + e.getMessage());
+                    return false;
+                })
+                .thenAccept(success -> Platform.runLater(() -> statusUpdated(order, status, description, success)));
+    }
+
+    private void statusUpdated(OrderSummary order, String status, String description, boolean success) {
+        if (statusLabel.getScene() == null) {
+            // The admin has left the screen; it reloads the orders when shown again
+            return;
+        }
+        if (success) {
+            // Usually already applied by the change feed
+            order.setStatus(status);
+            statusLabel.setText("Order #" + order.getOrderId() + " " + description);
+        } else {
+            statusLabel.setText("Error updating order status");
         }
+        updateButtons();
     }
 
     /**
@@ -4,15 +4,11 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Button;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
-public class AdminReportsController {
+public class AdminReportsController implements ScreenController {
 
     @FXML
     private DatePicker fromDatePicker;
@@ -38,8 +34,16 @@ public class AdminReportsController {
     @FXML
     private Label statusLabel;
 
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+
     @FXML
     public void initialize() {
+        // Drop report queries still running when the admin leaves this screen
+        requests.cancelWhenRemoved(statusLabel);
+    }
+
+    @Override
+    public void onShow() {
         // Set default date range (last 30 days)
         toDatePicker.setValue(LocalDate.now());
         fromDatePicker.setValue(LocalDate.now().minusDays(30));
@@ -61,95 +65,35 @@ public class AdminReportsController {
     }
 
     private void loadReports(LocalDate fromDate, LocalDate toDate) {
-        try {
-            int totalClients = getTotalClients();
-            int totalOrders = getTotalOrders(fromDate, toDate);
-            double totalRevenue = getTotalRevenue(fromDate, toDate);
-            String mostOrderedItem = getMostOrderedItem(fromDate, toDate);
-
-            totalClientsLabel.setText("Total Clients: " + totalClients);
-            totalOrdersLabel.setText("Total Orders: " + totalOrders);
-            totalRevenueLabel.setText("Total Revenue: $" + String.format("%.2f", totalRevenue));
-            mostOrderedItemLabel.setText("Most Ordered Item: " + mostOrderedItem);
+        statusLabel.setText("Loading reports...");
+        filterButton.setDisable(true);
+
+        // A newer filter replaces a report that is still loading
+        requests.submit("reports", () -> queryReports(fromDate, toDate), data -> {
+            filterButton.setDisable(false);
+            totalClientsLabel.setText("Total Clients: " + data.totalClients());
+            totalOrdersLabel.setText("Total Orders: " + data.totalOrders());
+            totalRevenueLabel.setText("Total Revenue: $" + String.format("%.2f", data.totalRevenue()));
+            mostOrderedItemLabel.setText("Most Ordered Item: " + (data.mostOrderedItem() != null
+                    ? data.mostOrderedItem() + " (" + data.mostOrderedQuantity() + " orders)"
+                    : "None"));
 
             String dateRange = (fromDate != null && toDate != null) ?
                 " (" + fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + " to " +
                 toDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ")" : " (All time)";
             statusLabel.setText("Reports loaded successfully" + dateRange);
-
-        } catch (SQLException e) {
+        }, e -> {
+            filterButton.setDisable(false);
             statusLabel.setText("Error loading reports: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private int getTotalClients() throws SQLException {
-        String query = "SELECT COUNT(*) as count FROM client";
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-            return rs.next() ? rs.getInt("count") : 0;
-        }
-    }
-
-    private int getTotalOrders(LocalDate fromDate, LocalDate toDate) throws SQLException {
-        StringBuilder query = new StringBuilder("SELECT COUNT(*) as count FROM orders");
-        if (fromDate != null && toDate != null) {
-            query.append(" WHERE date(order_date) BETWEEN '")
-                 .append(fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("' AND '")
-                 .append(toDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("'");
-        }
-
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query.toString())) {
-            return rs.next() ? rs.getInt("count") : 0;
-        }
+        });
     }
 
-    private double getTotalRevenue(LocalDate fromDate, LocalDate toDate) throws SQLException {
-        StringBuilder query = new StringBuilder("SELECT SUM(quantity * price) as revenue FROM orders");
-        if (fromDate != null && toDate != null) {
-            query.append(" WHERE date(order_date) BETWEEN '")
-                 .append(fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("' AND '")
-                 .append(toDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("'");
-        }
-
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query.toString())) {
-            return rs.next() ? rs.getDouble("revenue") : 0.0;
-        }
-    }
-
-    private String getMostOrderedItem(LocalDate fromDate, LocalDate toDate) throws SQLException {
-        StringBuilder query = new StringBuilder(
-            "SELECT item_name, SUM(quantity) as total_quantity " +
-            "FROM orders");
-
-        if (fromDate != null && toDate != null) {
-            query.append(" WHERE date(order_date) BETWEEN '")
-                 .append(fromDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("' AND '")
-                 .append(toDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")))
-                 .append("'");
-        }
-
-        query.append(" GROUP BY item_name ORDER BY total_quantity DESC LIMIT 1");
-
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(query.toString())) {
-            if (rs.next()) {
-                String itemName = rs.getString("item_name");
-                int quantity = rs.getInt("total_quantity");
-                return itemName + " (" + quantity + " orders)";
-            }
-            return "None";
+    // Runs on a background thread
+    private SalesReport queryReports(LocalDate fromDate, LocalDate toDate) {
+        try {
+            return SalesReport.query(fromDate, toDate);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
         }
     }
 
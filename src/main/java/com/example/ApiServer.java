@@ -0,0 +1,542 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless JSON API over the same DatabaseManager operations the screens use, so
+ * several terminals and the kitchen screen can share one restaurant.db.
+ * Built on the JDK's HttpServer; every request runs on its own virtual thread.
+ * Reads use the reader pool in parallel, writes queue for the single writer.
+ *
+ * Run with: java -cp ... com.example.ApiServer [port]   (default 8080)
+ *
+ * Settings (system properties):
+ *   restaurant.api.bind=127.0.0.1   address to listen on, e.g. 0.0.0.0 for every interface
+ *   restaurant.api.token=           shared terminal token; every request must then send
+ *                                   "Authorization: Bearer <token>". Required unless the
+ *                                   server only listens on the loopback address.
+ * Request bodies over 64 KB are refused with 413.
+ *
+ *   GET    /api/menu                                  menu items
+ *   GET    /api/tables                                available tables
+ *   GET    /api/orders?status=&after=&limit=          order summaries, paged by order id
+ *   GET    /api/orders/{id}                           one order with its lines
+ *   POST   /api/orders                                {clientName, clientNumber, lines: [{itemName, quantity}]}
+ *   PUT    /api/orders/{id}/status                    {status}
+ *   GET    /api/reservations                          all reservations
+ *   POST   /api/reservations                          {clientName, clientNumber, tableId, partySize}
+ *   DELETE /api/reservations?clientName=&clientNumber=
+ *   GET    /api/reports?from=yyyy-MM-dd&to=yyyy-MM-dd sales figures (all time without a range)
+ *   GET    /api/kitchen?table=                        pending orders from the kitchen queue
+ *   POST   /api/kitchen/dispatch                      {station}: take the oldest waiting order
+ *   GET    /api/kitchen/history                       recently completed or cancelled orders
+ */
+public class ApiServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+    // Prices are taken from the menu, re-read at most this often
+    private static final long MENU_REFRESH_MS = 1000;
+    // Largest request body read; orders and reservations are a few hundred bytes
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // A request that cannot be served; becomes {"error": message} with the status code
+    static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Status code and body (written as JSON) of a handled request
+    private record Reply(int status, Object body) {
+    }
+
+    private interface Handler {
+        Reply handle(HttpExchange exchange) throws IOException, SQLException;
+    }
+
+    private final HttpServer server;
+    private final byte[] token; // null when requests need no token
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile Map<String, MenuItem> menuByName = Map.of();
+    private volatile long menuLoadedAt;
+
+    // Listen on restaurant.api.bind (default loopback) with the token in restaurant.api.token
+    public ApiServer(int port) throws IOException {
+        this(System.getProperty("restaurant.api.bind"), port, System.getProperty("restaurant.api.token"));
+    }
+
+    /**
+     * @param bindAddress address to listen on, null for the loopback address
+     * @param token       shared terminal token, null or blank for none (loopback only)
+     */
+    public ApiServer(String bindAddress, int port, String token) throws IOException {
+        InetAddress address = bindAddress == null || bindAddress.isBlank()
+                ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress.trim());
+        boolean hasToken = token != null && !token.isBlank();
+        if (!hasToken && !address.isLoopbackAddress()) {
+            // Anyone on the network could read client details and change orders
+            throw new IllegalArgumentException("Set restaurant.api.token to listen on " + address.getHostAddress());
+        }
+        this.token = hasToken ? token.trim().getBytes(StandardCharsets.UTF_8) : null;
+
+        server = HttpServer.create(new InetSocketAddress(address, port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/menu", exchange -> serve(exchange, this::menu));
+        server.createContext("/api/tables", exchange -> serve(exchange, this::tables));
+        server.createContext("/api/orders", exchange -> serve(exchange, this::orders));
+        server.createContext("/api/reservations", exchange -> serve(exchange, this::reservations));
+        server.createContext("/api/reports", exchange -> serve(exchange, this::reports));
+        server.createContext("/api/kitchen", exchange -> serve(exchange, this::kitchen));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("API server listening on " + server.getAddress().getAddress().getHostAddress()
+                + ":" + getPort() + (token != null ? " (token required)" : ""));
+    }
+
+    // Stop accepting requests and give running ones up to delaySeconds to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+
+        // The recording, if any, is written on exit
+        Recordings.startIfRequested();
+        // Before the database: a bad bind address or missing token should fail fast
+        ApiServer api = new ApiServer(port);
+        DatabaseManager.initialize();
+        OrderService.start();
+        MetricsServer.startIfEnabled();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(2);
+            DatabaseManager.close();
+        }));
+        api.start();
+    }
+
+    // ==================== ENDPOINTS ====================
+
+    private Reply menu(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        List<Object> items = new ArrayList<>();
+        for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+            items.add(Json.object("id", item.getId(), "name", item.getName(), "category", item.getCategory(),
+                    "price", item.getPrice(), "available", item.isAvailable(), "imageHash", item.getImageHash()));
+        }
+        return new Reply(200, items);
+    }
+
+    private Reply tables(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        List<Object> tables = new ArrayList<>();
+        for (DatabaseManager.Table table : DatabaseManager.getAvailableTables()) {
+            tables.add(Json.object("id", table.getId(), "maxCapacity", table.getMaxCapacity()));
+        }
+        return new Reply(200, tables);
+    }
+
+    private Reply orders(HttpExchange exchange) throws IOException {
+        // /api/orders, /api/orders/{id} or /api/orders/{id}/status
+        String[] path = subPath(exchange, "/api/orders");
+        String method = exchange.getRequestMethod();
+
+        if (path.length == 0) {
+            switch (method) {
+                case "GET":
+                    return listOrders(query(exchange));
+                case "POST":
+                    return placeOrder(body(exchange));
+                default:
+                    throw new ApiException(405, method + " is not supported");
+            }
+        }
+        if (path.length == 1) {
+            requireMethod(exchange, "GET");
+            return getOrder(parseId(path[0]));
+        }
+        if (path.length == 2 && path[1].equals("status")) {
+            requireMethod(exchange, "PUT");
+            return updateStatus(parseId(path[0]), body(exchange));
+        }
+        throw new ApiException(404, exchange.getRequestURI().getPath() + " not found");
+    }
+
+    private Reply listOrders(Map<String, String> query) {
+        String status = query.get("status");
+        if (status != null) {
+            requireStatus(status);
+        }
+        int limit = query.containsKey("limit") ? parseInt(query.get("limit"), "limit") : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ApiException(400, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // The keyset anchor only needs the order id
+        OrderSummary after = query.containsKey("after")
+                ? new OrderSummary(parseInt(query.get("after"), "after"), 0, null, 0, null, null, null, null)
+                : null;
+
+        List<OrderSummary> page = DatabaseManager.getOrderSummaryPage(
+                new PageRequest<>("order_id", true, status, after, true, limit));
+        List<Object> orders = new ArrayList<>();
+        for (OrderSummary order : page) {
+            orders.add(Json.object("orderId", order.getOrderId(), "tableNumber", order.getTableNumber(),
+                    "date", order.getDate(), "total", order.getTotal(), "status", order.getStatus(),
+                    "clientName", order.getClientName(), "clientNumber", order.getClientNumber()));
+        }
+        // Pass "next" back as ?after= for the following page
+        Integer next = page.size() == limit ? page.get(page.size() - 1).getOrderId() : null;
+        return new Reply(200, Json.object("orders", orders, "next", next));
+    }
+
+    private Reply getOrder(int orderId) {
+        List<Order> lines = DatabaseManager.getOrdersByOrderId(orderId);
+        if (lines.isEmpty()) {
+            throw new ApiException(404, "Order " + orderId + " not found");
+        }
+        Order first = lines.get(0);
+        List<Object> items = new ArrayList<>();
+        double total = 0;
+        for (Order line : lines) {
+            items.add(Json.object("itemName", line.getItemName(), "quantity", line.getQuantity(),
+                    "price", line.getPrice()));
+            total += line.getTotalPrice();
+        }
+        return new Reply(200, Json.object("orderId", orderId, "tableNumber", first.getTableNumber(),
+                "date", first.getOrderDate(), "status", first.getStatus(), "clientName", first.getClientName(),
+                "clientNumber", first.getClientNumber(), "total", total, "lines", items));
+    }
+
+    private Reply placeOrder(Map<String, Object> body) {
+        String clientName = requireString(body, "clientName");
+        String clientNumber = requireString(body, "clientNumber");
+        if (!(body.get("lines") instanceof List<?> requested) || requested.isEmpty()) {
+            throw new ApiException(400, "lines must be a non-empty array");
+        }
+
+        // Terminals send item names only; prices always come from the menu
+        Map<String, MenuItem> menu = currentMenu();
+        List<OrderItem> lines = new ArrayList<>();
+        for (Object element : requested) {
+            if (!(element instanceof Map<?, ?> line)) {
+                throw new ApiException(400, "Each line must be an object");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) line;
+            String itemName = requireString(fields, "itemName");
+            int quantity = requireInt(fields, "quantity");
+            MenuItem item = menu.get(itemName);
+            if (item == null || !item.isAvailable()) {
+                throw new ApiException(400, itemName + " is not on the menu");
+            }
+            if (quantity <= 0) {
+                throw new ApiException(400, "quantity must be positive");
+            }
+            lines.add(new OrderItem(itemName, quantity, item.getPrice()));
+        }
+
+        int orderId = DatabaseManager.placeOrderReturningId(clientName, clientNumber, lines);
+        if (orderId < 0) {
+            throw new ApiException(500, "Could not place the order");
+        }
+        double total = 0;
+        for (OrderItem line : lines) {
+            total += line.getQuantity() * line.getPrice();
+        }
+        return new Reply(201, Json.object("orderId", orderId, "total", total));
+    }
+
+    private Reply updateStatus(int orderId, Map<String, Object> body) {
+        String status = requireStatus(requireString(body, "status"));
+        if (!DatabaseManager.updateOrderStatus(orderId, status)) {
+            throw new ApiException(404, "Order " + orderId + " not found");
+        }
+        return new Reply(200, Json.object("orderId", orderId, "status", status));
+    }
+
+    private Reply reservations(HttpExchange exchange) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case "GET": {
+                List<Object> reservations = new ArrayList<>();
+                for (DatabaseManager.Reservation reservation : DatabaseManager.getAllReservations()) {
+                    reservations.add(Json.object("id", reservation.getId(),
+                            "clientName", reservation.getClientName(), "clientNumber", reservation.getClientNumber(),
+                            "tableId", reservation.getTableId(), "partySize", reservation.getPartySize(),
+                            "date", reservation.getReservationDate()));
+                }
+                return new Reply(200, reservations);
+            }
+            case "POST": {
+                Map<String, Object> body = body(exchange);
+                String clientName = requireString(body, "clientName");
+                String clientNumber = requireString(body, "clientNumber");
+                int tableId = requireInt(body, "tableId");
+                int partySize = requireInt(body, "partySize");
+                if (!DatabaseManager.addReservation(clientName, clientNumber, tableId, partySize)) {
+                    throw new ApiException(409, "Table " + tableId + " is not available or the client already has a reservation");
+                }
+                return new Reply(201, Json.object("clientName", clientName, "clientNumber", clientNumber,
+                        "tableId", tableId, "partySize", partySize));
+            }
+            case "DELETE": {
+                Map<String, String> query = query(exchange);
+                String clientName = query.get("clientName");
+                String clientNumber = query.get("clientNumber");
+                if (clientName == null || clientNumber == null) {
+                    throw new ApiException(400, "clientName and clientNumber are required");
+                }
+                if (!DatabaseManager.cancelClientReservation(clientName, clientNumber)) {
+                    throw new ApiException(404, "No reservation for " + clientName);
+                }
+                return new Reply(200, Json.object("cancelled", true));
+            }
+            default:
+                throw new ApiException(405, exchange.getRequestMethod() + " is not supported");
+        }
+    }
+
+    private Reply kitchen(HttpExchange exchange) throws IOException {
+        // /api/kitchen, /api/kitchen/dispatch or /api/kitchen/history
+        String[] path = subPath(exchange, "/api/kitchen");
+
+        if (path.length == 0) {
+            requireMethod(exchange, "GET");
+            String table = query(exchange).get("table");
+            List<OrderService.Ticket> tickets = table == null
+                    ? OrderService.getPendingOrders()
+                    : OrderService.getPendingOrdersForTable(parseInt(table, "table"));
+            return new Reply(200, tickets(tickets));
+        }
+        if (path.length == 1 && path[0].equals("dispatch")) {
+            requireMethod(exchange, "POST");
+            OrderService.Ticket ticket = OrderService.dispatchNext(requireString(body(exchange), "station"));
+            if (ticket == null) {
+                return new Reply(200, Json.object("ticket", null));
+            }
+            return new Reply(200, Json.object("ticket", ticket(ticket)));
+        }
+        if (path.length == 1 && path[0].equals("history")) {
+            requireMethod(exchange, "GET");
+            return new Reply(200, tickets(OrderService.getHistory()));
+        }
+        throw new ApiException(404, exchange.getRequestURI().getPath() + " not found");
+    }
+
+    private static List<Object> tickets(List<OrderService.Ticket> tickets) {
+        List<Object> json = new ArrayList<>();
+        for (OrderService.Ticket ticket : tickets) {
+            json.add(ticket(ticket));
+        }
+        return json;
+    }
+
+    private static Map<String, Object> ticket(OrderService.Ticket ticket) {
+        List<Object> items = new ArrayList<>();
+        for (OrderItem line : ticket.getLines()) {
+            items.add(Json.object("itemName", line.getItemName(), "quantity", line.getQuantity()));
+        }
+        return Json.object("orderId", ticket.getOrderId(), "tableNumber", ticket.getTableNumber(),
+                "date", ticket.getOrderDate(), "clientName", ticket.getClientName(), "status", ticket.getStatus(),
+                "station", ticket.getStation(), "lines", items);
+    }
+
+    private Reply reports(HttpExchange exchange) throws SQLException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        LocalDate from = parseDate(query.get("from"), "from");
+        LocalDate to = parseDate(query.get("to"), "to");
+        if ((from == null) != (to == null)) {
+            throw new ApiException(400, "from and to must be given together");
+        }
+        if (from != null && from.isAfter(to)) {
+            throw new ApiException(400, "from cannot be after to");
+        }
+
+        SalesReport report = SalesReport.query(from, to);
+        return new Reply(200, Json.object("from", from == null ? null : from.toString(),
+                "to", to == null ? null : to.toString(), "totalClients", report.totalClients(),
+                "totalOrders", report.totalOrders(), "totalRevenue", report.totalRevenue(),
+                "mostOrderedItem", report.mostOrderedItem(), "mostOrderedQuantity", report.mostOrderedQuantity()));
+    }
+
+    // ==================== HELPERS ====================
+
+    // Menu by item name, shared by concurrent order requests
+    private Map<String, MenuItem> currentMenu() {
+        if (System.currentTimeMillis() - menuLoadedAt > MENU_REFRESH_MS) {
+            Map<String, MenuItem> menu = new HashMap<>();
+            for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+                menu.put(item.getName(), item);
+            }
+            menuByName = menu;
+            menuLoadedAt = System.currentTimeMillis();
+        }
+        return menuByName;
+    }
+
+    private void serve(HttpExchange exchange, Handler handler) throws IOException {
+        Reply reply;
+        try {
+            authorize(exchange);
+            reply = handler.handle(exchange);
+        } catch (ApiException e) {
+            reply = new Reply(e.status, Json.object("error", e.getMessage()));
+        } catch (Exception | StackOverflowError e) {
+            // A handler that overflows the stack still gets a reply instead of a dropped connection
+            System.err.println("Error handling " + exchange.getRequestMethod() + " "
+                    + exchange.getRequestURI() + ": " + e.getMessage());
+            e.printStackTrace();
+            reply = new Reply(500, Json.object("error", "Internal server error"));
+        }
+
+        byte[] bytes = Json.write(reply.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(reply.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void authorize(HttpExchange exchange) {
+        if (token == null) {
+            return;
+        }
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        byte[] presented = header != null && header.startsWith("Bearer ")
+                ? header.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        // Constant-time comparison, so response times do not reveal the token
+        if (!MessageDigest.isEqual(presented, token)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            throw new ApiException(401, "A valid terminal token is required");
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new ApiException(405, exchange.getRequestMethod() + " is not supported");
+        }
+    }
+
+    // Path segments after the context path, e.g. ["12", "status"]
+    private static String[] subPath(HttpExchange exchange, String contextPath) {
+        String rest = exchange.getRequestURI().getPath().substring(contextPath.length());
+        rest = rest.replaceAll("^/+|/+$", "");
+        return rest.isEmpty() ? new String[0] : rest.split("/");
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        String text;
+        try (InputStream in = exchange.getRequestBody()) {
+            // Read one byte past the limit rather than trusting Content-Length (or its absence)
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        try {
+            if (Json.parse(text) instanceof Map<?, ?> map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> object = (Map<String, Object>) map;
+                return object;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid JSON: " + e.getMessage());
+        }
+        throw new ApiException(400, "Request body must be a JSON object");
+    }
+
+    private static String requireString(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof String value) || value.isBlank()) {
+            throw new ApiException(400, field + " is required");
+        }
+        return value.trim();
+    }
+
+    private static int requireInt(Map<String, Object> body, String field) {
+        if (!(body.get(field) instanceof Double value) || value != Math.rint(value)
+                || Math.abs(value) > Integer.MAX_VALUE) {
+            throw new ApiException(400, field + " must be a whole number");
+        }
+        return value.intValue();
+    }
+
+    private static String requireStatus(String status) {
+        if (!status.equals(OrderSummary.STATUS_PENDING) && !status.equals(OrderSummary.STATUS_COMPLETED)
+                && !status.equals(OrderSummary.STATUS_CANCELLED)) {
+            throw new ApiException(400, "Unknown status " + status);
+        }
+        return status;
+    }
+
+    private static int parseId(String value) {
+        return parseInt(value, "order id");
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a number");
+        }
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, name + " must be a date (yyyy-MM-dd)");
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.example;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -13,15 +12,35 @@ import java.io.IOException;
  */
 public class App extends Application {
 
+    private static final LatencyHistogram pulseTime = Metrics.histogram("restaurant_fx_pulse_seconds",
+            "CSS and layout time of each scene pulse", Metrics.LATENCY_BUCKETS);
+
     private static Scene scene;
+    // Screen shown, and the screen whose FXML is loading during a switch (read by FxWatchdog)
+    private static volatile String currentScreen;
+    private static volatile String loadingScreen;
+    private static Object currentController; // FX thread only
+    // Pulse and screen switch timing (FX thread only)
+    private static long pulseStartNanos;
+    private static long switchStartNanos;
+    private static LatencyHistogram switchTime;
     private static String currentClientName;
     private static String currentClientNumber;
+    private static Cart cart = new Cart();
 
     public static void setCurrentClient(String name, String number) {
+        // A different client starts with an empty cart
+        if (!java.util.Objects.equals(name, currentClientName) || !java.util.Objects.equals(number, currentClientNumber)) {
+            cart = new Cart();
+        }
         currentClientName = name;
         currentClientNumber = number;
     }
 
+    public static Cart getCart() {
+        return cart;
+    }
+
     public static String getCurrentClientName() {
         return currentClientName;
     }
@@ -32,31 +51,100 @@ public class App extends Application {
 
     @Override
     public void start(Stage stage) throws IOException {
+        // Record with the bundled JFR configuration when -Drestaurant.jfr=<file> is set
+        Recordings.startIfRequested();
+
         // Initialize database
         DatabaseManager.initialize();
+        OrderService.start();
+        MetricsServer.startIfEnabled();
         
-        scene = new Scene(loadFXML("main"), 700, 600);
+        FXMLLoader main = ScreenCache.get("main");
+        currentScreen = "main";
+        currentController = main.getController();
+        scene = new Scene(main.getRoot(), 700, 600);
+        scene.addPreLayoutPulseListener(() -> pulseStartNanos = System.nanoTime());
+        scene.addPostLayoutPulseListener(App::pulseLaidOut);
         stage.setScene(scene);
         stage.setTitle("Restaurant Management System");
         stage.show();
+        FxWatchdog.start();
+        if (currentController instanceof ScreenController screen) {
+            screen.onShow();
+        }
+        // Parse the screens reachable from the login screen while the user types
+        ScreenCache.prewarmNext("main");
         
         // Close database connection when application closes
-        stage.setOnCloseRequest(event -> DatabaseManager.close());
+        stage.setOnCloseRequest(event -> {
+            DatabaseManager.close();
+            MetricsServer.stop();
+            FxWatchdog.stop();
+            Recordings.stop();
+        });
     }
 
     static void setRoot(String fxml) throws IOException {
-        scene.setRoot(loadFXML(fxml));
+        setRootWithController(fxml);
+    }
+
+    static String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    // Screen being opened, null when no switch is in progress
+    static String getLoadingScreen() {
+        return loadingScreen;
     }
 
+    /**
+     * Show a screen. Screens are cached, so the returned loader's controller may be one
+     * that was shown before; it has just had onShow() called, and the caller passes it
+     * anything else it needs (client, admin code) afterwards.
+     */
     static FXMLLoader setRootWithController(String fxml) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
-        scene.setRoot(fxmlLoader.load());
+        switchStartNanos = System.nanoTime();
+        switchTime = Metrics.histogram("restaurant_fx_scene_switch_seconds",
+                "Time from navigating to a screen until it is laid out", Metrics.LATENCY_BUCKETS, "screen", fxml);
+        NavigationEvent event = new NavigationEvent();
+        event.begin();
+        String from = currentScreen;
+        boolean cached = ScreenCache.isLoaded(fxml);
+        loadingScreen = fxml;
+        FXMLLoader fxmlLoader;
+        try {
+            fxmlLoader = ScreenCache.get(fxml);
+            if (currentController instanceof ScreenController screen) {
+                screen.onHide();
+            }
+            scene.setRoot(fxmlLoader.getRoot());
+            currentScreen = fxml;
+            currentController = fxmlLoader.getController();
+            if (currentController instanceof ScreenController screen) {
+                screen.onShow();
+            }
+        } finally {
+            loadingScreen = null;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.from = from;
+            event.to = fxml;
+            event.cached = cached;
+            event.commit();
+        }
+        ScreenCache.prewarmNext(fxml);
         return fxmlLoader;
     }
 
-    private static Parent loadFXML(String fxml) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
-        return fxmlLoader.load();
+    // A switch ends with the first layout after the new root is set
+    private static void pulseLaidOut() {
+        long now = System.nanoTime();
+        pulseTime.record((now - pulseStartNanos) / 1000);
+        if (switchTime != null) {
+            switchTime.record((now - switchStartNanos) / 1000);
+            switchTime = null;
+        }
     }
 
     public static void main(String[] args) {
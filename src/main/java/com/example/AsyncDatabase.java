@@ -0,0 +1,111 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs DatabaseManager calls off the JavaFX application thread.
+ * Work runs on virtual threads and results are handed back with Platform.runLater,
+ * so a slow query never blocks a UI pulse. Controllers should keep one Requests
+ * object per screen: it cancels a request when a newer one with the same key is
+ * made, and cancels everything when the screen is navigated away from.
+ */
+public class AsyncDatabase {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Run work on a background thread. Cancelling the returned future interrupts the
+     * work and its result is dropped.
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = EXECUTOR.submit(() -> {
+            try {
+                result.complete(work.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Requests made by one screen.
+     */
+    public static final class Requests {
+        private final Map<String, CompletableFuture<?>> pending = new HashMap<>(); // FX thread only
+
+        /**
+         * Run work in the background and pass its result to onResult on the FX thread.
+         * A previous request with the same key that has not finished is cancelled, and
+         * the callbacks of a cancelled request never run.
+         */
+        public <T> CompletableFuture<T> submit(String key, Supplier<T> work, Consumer<T> onResult,
+                Consumer<Throwable> onError) {
+            CompletableFuture<?> previous = pending.remove(key);
+            if (previous != null) {
+                previous.cancel(true);
+            }
+
+            CompletableFuture<T> request = supply(work);
+            pending.put(key, request);
+            request.whenComplete((value, error) -> Platform.runLater(() -> {
+                if (request.isCancelled()) {
+                    return;
+                }
+                pending.remove(key, request);
+                if (error == null) {
+                    onResult.accept(value);
+                } else {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    System.err.println("Background database request '" + key + "' failed: " + cause.getMessage());
+                    cause.printStackTrace();
+                    onError.accept(cause);
+                }
+            }));
+            return request;
+        }
+
+        public boolean isLoading(String key) {
+            return pending.containsKey(key);
+        }
+
+        public void cancelAll() {
+            List<CompletableFuture<?>> requests = new ArrayList<>(pending.values());
+            pending.clear();
+            for (CompletableFuture<?> request : requests) {
+                request.cancel(true);
+            }
+        }
+
+        /**
+         * Cancel all requests once node leaves its scene, i.e. when App replaces the
+         * screen the node belongs to.
+         */
+        public Requests cancelWhenRemoved(Node node) {
+            node.sceneProperty().addListener((obs, oldScene, newScene) -> {
+                if (oldScene != null && newScene == null) {
+                    cancelAll();
+                }
+            });
+            return this;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Items a client has picked from the menu but not yet ordered.
+ * Placing the order sends every line to the database in one transaction.
+ */
+public class Cart {
+    private final ObservableList<OrderItem> items = FXCollections.observableArrayList();
+
+    /**
+     * Add an item; adding an item that is already in the cart increases its quantity.
+     */
+    public void addItem(String itemName, int quantity, double price) {
+        for (OrderItem item : items) {
+            if (item.getItemName().equals(itemName) && item.getPrice() == price) {
+                item.setQuantity(item.getQuantity() + quantity);
+                return;
+            }
+        }
+        items.add(new OrderItem(itemName, quantity, price));
+    }
+
+    public ObservableList<OrderItem> getItems() {
+        return items;
+    }
+
+    // Copies of the current lines, unaffected by items added to the cart afterwards
+    public List<OrderItem> snapshot() {
+        List<OrderItem> lines = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            lines.add(new OrderItem(item.getItemName(), item.getQuantity(), item.getPrice()));
+        }
+        return lines;
+    }
+
+    /**
+     * Take lines that have been ordered out of the cart. Anything added to the cart
+     * while the order was being placed stays in it.
+     */
+    public void removePlaced(List<OrderItem> placed) {
+        for (OrderItem line : placed) {
+            for (int i = 0; i < items.size(); i++) {
+                OrderItem item = items.get(i);
+                if (item.getItemName().equals(line.getItemName()) && item.getPrice() == line.getPrice()) {
+                    int remaining = item.getQuantity() - line.getQuantity();
+                    if (remaining > 0) {
+                        item.setQuantity(remaining);
+                    } else {
+                        items.remove(i);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    // Total number of dishes (sum of quantities)
+    public int getItemCount() {
+        int count = 0;
+        for (OrderItem item : items) {
+            count += item.getQuantity();
+        }
+        return count;
+    }
+
+    public double getTotal() {
+        double total = 0;
+        for (OrderItem item : items) {
+            total += item.getSubtotal();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public void clear() {
+        items.clear();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example;
+
+import javafx.application.Platform;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-process feed of committed database changes.
+ * DatabaseManager publishes one event per write after its transaction commits, so
+ * open screens can apply the change to the rows they show instead of reloading.
+ * Plain subscribers run on the writing thread and must return quickly; screens use
+ * subscribeOnFx, which hands events to the FX thread (a burst of events is
+ * delivered in one Platform.runLater).
+ */
+public class ChangeFeed {
+
+    /**
+     * A committed change.
+     */
+    public sealed interface Change permits OrderPlaced, OrderStatusChanged, ReservationAdded,
+            ReservationCancelled {
+    }
+
+    // A new order; every line starts as Pending
+    public record OrderPlaced(int orderId, String clientName, String clientNumber, int tableNumber,
+            String orderDate, List<OrderItem> lines) implements Change {
+        public double total() {
+            double total = 0;
+            for (OrderItem line : lines) {
+                total += line.getQuantity() * line.getPrice();
+            }
+            return total;
+        }
+
+        public boolean isFor(String name, String number) {
+            return clientName.equals(name) && clientNumber.equals(number);
+        }
+    }
+
+    public record OrderStatusChanged(int orderId, String status) implements Change {
+    }
+
+    public record ReservationAdded(String clientName, String clientNumber, int tableId, int partySize)
+            implements Change {
+    }
+
+    public record ReservationCancelled(String clientName, String clientNumber, int tableId) implements Change {
+    }
+
+    private static final List<Subscription> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * A registered listener; screens close theirs in ScreenController.onHide().
+     */
+    public static class Subscription implements AutoCloseable {
+        private final Consumer<Change> listener;
+
+        private Subscription(Consumer<Change> listener) {
+            this.listener = listener;
+        }
+
+        void deliver(Change change) {
+            notifyListener(listener, change);
+        }
+
+        @Override
+        public void close() {
+            SUBSCRIBERS.remove(this);
+        }
+    }
+
+    // Queues events and drains them on the FX thread, one runLater per burst
+    private static final class FxSubscription extends Subscription {
+        private final Queue<Change> queued = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private FxSubscription(Consumer<Change> listener) {
+            super(listener);
+        }
+
+        // Called on the publishing thread
+        @Override
+        void deliver(Change change) {
+            queued.add(change);
+            if (scheduled.compareAndSet(false, true)) {
+                Platform.runLater(this::drain);
+            }
+        }
+
+        private void drain() {
+            scheduled.set(false);
+            Change change;
+            while ((change = queued.poll()) != null) {
+                super.deliver(change);
+            }
+        }
+    }
+
+    // Listener runs on the thread that made the change
+    public static Subscription subscribe(Consumer<Change> listener) {
+        Subscription subscription = new Subscription(listener);
+        SUBSCRIBERS.add(subscription);
+        return subscription;
+    }
+
+    // Listener runs on the FX application thread
+    public static Subscription subscribeOnFx(Consumer<Change> listener) {
+        Subscription subscription = new FxSubscription(listener);
+        SUBSCRIBERS.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Tell subscribers about a committed change. Call after the transaction commits
+     * and after releasing the connection lease.
+     */
+    static void publish(Change change) {
+        for (Subscription subscription : SUBSCRIBERS) {
+            subscription.deliver(change);
+        }
+    }
+
+    // One failing listener must not stop the others or the write that published
+    private static void notifyListener(Consumer<Change> listener, Change change) {
+        try {
+            listener.accept(change);
+        } catch (RuntimeException e) {
+            System.err.println("Change listener failed for " + change + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background WAL checkpointing for restaurant.db.
+ * Runs a PASSIVE checkpoint once writes have been idle for a while, and a
+ * TRUNCATE checkpoint (which also shrinks the -wal file) during off-peak hours.
+ * Checkpoints are skipped while another thread holds the writer connection.
+ */
+public class CheckpointScheduler {
+    private static final long CHECK_INTERVAL_SECONDS = 15;
+    private static final long IDLE_BEFORE_CHECKPOINT_MS = 5_000;
+    private static final long TRUNCATE_INTERVAL_MS = 60 * 60 * 1000;
+
+    // Off-peak window for truncating checkpoints: after closing until before lunch
+    private static final LocalTime OFF_PEAK_START = LocalTime.of(23, 0);
+    private static final LocalTime OFF_PEAK_END = LocalTime.of(10, 0);
+
+    private final ConnectionPool pool;
+    private final Path walFile;
+    private ScheduledExecutorService executor;
+
+    private volatile LocalDateTime lastCheckpointTime;
+    private volatile String lastCheckpointMode;
+    // Last write already covered by a completed checkpoint
+    private volatile long checkpointedWriteMillis;
+    private volatile long lastTruncateMillis;
+
+    public CheckpointScheduler(ConnectionPool pool, String databaseFile) {
+        this.pool = pool;
+        this.walFile = Path.of(databaseFile + "-wal");
+    }
+
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runScheduledCheckpoint,
+                CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    private void runScheduledCheckpoint() {
+        try {
+            long now = System.currentTimeMillis();
+            long lastWrite = pool.getLastWriteMillis();
+
+            boolean truncateDue = isOffPeak(LocalTime.now())
+                    && now - lastTruncateMillis >= TRUNCATE_INTERVAL_MS
+                    && getWalSizeBytes() > 0;
+            boolean passiveDue = lastWrite > checkpointedWriteMillis;
+
+            // Never compete with order entry: wait until writes have settled
+            if (now - lastWrite < IDLE_BEFORE_CHECKPOINT_MS || (!truncateDue && !passiveDue)) {
+                return;
+            }
+            checkpoint(truncateDue ? "TRUNCATE" : "PASSIVE", false);
+        } catch (RuntimeException e) {
+            // Keep the scheduler alive if a single run fails
+            System.err.println("Error in checkpoint scheduler: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run a checkpoint now. When wait is false the checkpoint is skipped if the
+     * writer connection is busy.
+     * @param mode PASSIVE, FULL, RESTART or TRUNCATE
+     * @return true if the checkpoint ran
+     */
+    public boolean checkpoint(String mode, boolean wait) {
+        try (ConnectionPool.Lease lease = wait ? pool.writer() : pool.tryWriter()) {
+            if (lease == null) {
+                return false;
+            }
+            // The checkpoint itself is not a write, or an idle database would be checkpointed every round
+            lease.excludeFromLastWrite();
+            long writeSeen = pool.getLastWriteMillis();
+            boolean complete = true;
+            try (Statement stmt = lease.connection().createStatement();
+                    ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+                if (rs.next() && rs.getInt(1) != 0) {
+                    // busy = 1: readers prevented a complete checkpoint, try again next round
+                    System.err.println("WAL checkpoint (" + mode + ") could not complete, readers busy");
+                    complete = false;
+                }
+            }
+            if (complete) {
+                checkpointedWriteMillis = writeSeen;
+            }
+            long now = System.currentTimeMillis();
+            lastCheckpointTime = LocalDateTime.now();
+            lastCheckpointMode = mode;
+            if ("TRUNCATE".equals(mode)) {
+                lastTruncateMillis = now;
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error running WAL checkpoint: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isOffPeak(LocalTime time) {
+        // The window wraps past midnight
+        return !time.isBefore(OFF_PEAK_START) || time.isBefore(OFF_PEAK_END);
+    }
+
+    // Current size of the -wal file, 0 if there is none
+    public long getWalSizeBytes() {
+        try {
+            return Files.exists(walFile) ? Files.size(walFile) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // Time of the last completed checkpoint, null if none has run yet
+    public LocalDateTime getLastCheckpointTime() {
+        return lastCheckpointTime;
+    }
+
+    public String getLastCheckpointMode() {
+        return lastCheckpointMode;
+    }
+}
@@ -5,7 +5,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Label;
 import java.io.IOException;
 
-public class ClientController {
+public class ClientController implements ScreenController {
 
     @FXML
     private Label clientNameLabel;
@@ -19,6 +19,11 @@ public class ClientController {
     private String clientName;
     private String clientNumber;
 
+    @Override
+    public void onShow() {
+        statusLabel.setText("");
+    }
+
     // Set client information when navigating to this page
     public void setClientInfo(String name, String number) {
         this.clientName = name;
@@ -0,0 +1,368 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of SQLite connections: one writer connection guarded by a fair lock
+ * and up to maxReaders query-only reader connections.
+ * Connections are leased per thread, so nested calls on the same thread share one
+ * connection (and therefore one transaction) instead of borrowing a second one.
+ * Every connection caches its prepared statements (see StatementCache), and every
+ * lease is timed as an operation of its caller (see QueryMonitor).
+ */
+public class ConnectionPool {
+    // Idle connections older than this are validated before being handed out again
+    private static final long VALIDATE_AFTER_MS = 30_000;
+    // Idle prepared statements kept per connection
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final String url;
+    private final int maxReaders;
+    private final long acquireTimeoutMs;
+    private final List<String> connectionPragmas;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private final BlockingQueue<IdleConnection> idleReaders;
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+
+    private Connection writerConnection; // guarded by writerLock
+    private volatile long writerLastUsed;
+    private volatile long lastWriteMillis;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, int maxReaders, long acquireTimeoutMs) {
+        this(url, maxReaders, acquireTimeoutMs, List.of());
+    }
+
+    /**
+     * @param connectionPragmas statements run on every connection when it is opened
+     */
+    public ConnectionPool(String url, int maxReaders, long acquireTimeoutMs, List<String> connectionPragmas) {
+        this.url = url;
+        this.maxReaders = maxReaders;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.connectionPragmas = List.copyOf(connectionPragmas);
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+    }
+
+    /**
+     * A connection leased to the current thread. Closing the lease returns the
+     * connection to the pool once the outermost lease on this thread is closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final boolean writer;
+        private int depth = 1;
+        private boolean countsAsWrite = true;
+
+        private Lease(Connection connection, boolean writer) {
+            this.connection = connection;
+            this.writer = writer;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        public boolean isWriter() {
+            return writer;
+        }
+
+        /**
+         * Leave this writer lease out of getLastWriteMillis(), e.g. for a WAL checkpoint
+         * that writes nothing new. Ignored for a lease nested in an outer one.
+         */
+        public void excludeFromLastWrite() {
+            if (depth == 1) {
+                countsAsWrite = false;
+            }
+        }
+
+        @Override
+        public void close() {
+            QueryMonitor.leaseReleased();
+            if (--depth == 0) {
+                release(this);
+            }
+        }
+    }
+
+    // Idle reader together with the time it was returned to the pool
+    private record IdleConnection(Connection connection, long since) {
+    }
+
+    /**
+     * Lease a connection for queries. If this thread already holds a lease
+     * (read or write) that connection is reused.
+     */
+    public Lease reader() throws SQLException {
+        long requested = System.nanoTime();
+        Lease held = currentLease.get();
+        if (held != null) {
+            held.depth++;
+            QueryMonitor.leased(requested);
+            return held;
+        }
+        ensureOpen();
+
+        Lease lease = new Lease(borrowReader(), false);
+        currentLease.set(lease);
+        QueryMonitor.leased(requested);
+        return lease;
+    }
+
+    /**
+     * Lease the single writer connection. Blocks until the current writer releases it
+     * or the acquire timeout expires.
+     */
+    public Lease writer() throws SQLException {
+        long requested = System.nanoTime();
+        Lease held = currentLease.get();
+        if (held != null) {
+            if (!held.writer) {
+                throw new SQLException("Cannot acquire the writer connection while holding a read lease");
+            }
+            held.depth++;
+            QueryMonitor.leased(requested);
+            return held;
+        }
+        ensureOpen();
+
+        try {
+            if (!writerLock.tryLock(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for the writer connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the writer connection", e);
+        }
+        Lease lease = leaseWriter();
+        QueryMonitor.leased(requested);
+        return lease;
+    }
+
+    /**
+     * Lease the writer connection only if it is free right now.
+     * @return the lease, or null if another thread holds the writer
+     */
+    public Lease tryWriter() throws SQLException {
+        long requested = System.nanoTime();
+        Lease held = currentLease.get();
+        if (held != null) {
+            if (!held.writer) {
+                return null;
+            }
+            held.depth++;
+            QueryMonitor.leased(requested);
+            return held;
+        }
+        ensureOpen();
+
+        if (!writerLock.tryLock()) {
+            return null;
+        }
+        Lease lease = leaseWriter();
+        QueryMonitor.leased(requested);
+        return lease;
+    }
+
+    // Called with writerLock held; opens or replaces the writer connection as needed
+    private Lease leaseWriter() throws SQLException {
+        try {
+            if (writerConnection == null || !isHealthy(writerConnection, writerLastUsed)) {
+                closeQuietly(writerConnection);
+                writerConnection = open(false);
+            }
+        } catch (SQLException e) {
+            writerConnection = null;
+            writerLock.unlock();
+            throw e;
+        }
+
+        Lease lease = new Lease(writerConnection, true);
+        currentLease.set(lease);
+        return lease;
+    }
+
+    // Take an idle reader, open a new one while under the limit, otherwise wait for one
+    private Connection borrowReader() throws SQLException {
+        IdleConnection idle;
+        while ((idle = idleReaders.poll()) != null) {
+            if (isHealthy(idle.connection(), idle.since())) {
+                return idle.connection();
+            }
+            discardReader(idle.connection());
+        }
+
+        if (openReaders.incrementAndGet() <= maxReaders) {
+            try {
+                return open(true);
+            } catch (SQLException e) {
+                openReaders.decrementAndGet();
+                throw e;
+            }
+        }
+        openReaders.decrementAndGet();
+
+        try {
+            idle = idleReaders.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a reader connection", e);
+        }
+        if (idle == null) {
+            throw new SQLException("Timed out waiting for a reader connection");
+        }
+        if (!isHealthy(idle.connection(), idle.since())) {
+            // Replace the broken connection; the open count stays the same unless that fails
+            closeQuietly(idle.connection());
+            try {
+                return open(true);
+            } catch (SQLException e) {
+                openReaders.decrementAndGet();
+                throw e;
+            }
+        }
+        return idle.connection();
+    }
+
+    private void release(Lease lease) {
+        currentLease.remove();
+        Connection conn = lease.connection;
+
+        if (lease.writer) {
+            try {
+                // Never hand the writer to the next thread in the middle of a transaction
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting writer connection: " + e.getMessage());
+                closeQuietly(conn);
+                writerConnection = null;
+            }
+            writerLastUsed = System.currentTimeMillis();
+            if (lease.countsAsWrite) {
+                lastWriteMillis = writerLastUsed;
+            }
+            if (closed) {
+                closeQuietly(writerConnection);
+                writerConnection = null;
+            }
+            writerLock.unlock();
+        } else if (closed || !idleReaders.offer(new IdleConnection(conn, System.currentTimeMillis()))) {
+            discardReader(conn);
+        }
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            // Wait for locks held by other connections instead of failing with SQLITE_BUSY
+            stmt.execute("PRAGMA busy_timeout = " + acquireTimeoutMs);
+            for (String pragma : connectionPragmas) {
+                stmt.execute(pragma);
+            }
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = 1");
+            }
+        } catch (SQLException e) {
+            closeQuietly(conn);
+            throw e;
+        }
+        return StatementCache.wrap(conn, STATEMENT_CACHE_SIZE, statementStats);
+    }
+
+    private boolean isHealthy(Connection conn, long lastUsed) {
+        try {
+            if (conn.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - lastUsed < VALIDATE_AFTER_MS) {
+                return true;
+            }
+            return conn.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discardReader(Connection conn) {
+        closeQuietly(conn);
+        openReaders.decrementAndGet();
+    }
+
+    private void ensureOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    // Number of reader connections currently open (idle or leased)
+    public int getOpenReaderCount() {
+        return openReaders.get();
+    }
+
+    // Prepared statement cache counters summed over all connections
+    public StatementCache.Stats getStatementCacheStats() {
+        return statementStats;
+    }
+
+    public int getIdleReaderCount() {
+        return idleReaders.size();
+    }
+
+    // Time the writer connection was last released after a write, 0 if it has never been used
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close every idle connection. Connections still leased are closed when
+     * their lease is released.
+     */
+    public void close() {
+        closed = true;
+
+        IdleConnection idle;
+        while ((idle = idleReaders.poll()) != null) {
+            discardReader(idle.connection());
+        }
+
+        if (!writerLock.isHeldByCurrentThread() && writerLock.tryLock()) {
+            try {
+                closeQuietly(writerConnection);
+                writerConnection = null;
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one database operation, committed by QueryMonitor when the operation
+ * releases its connection. The event's duration is the time the connection was held;
+ * the wait for the connection is reported separately.
+ */
+@Name("com.example.DatabaseOperation")
+@Label("Database Operation")
+@Category({ "Restaurant", "Database" })
+@Description("A lease of a database connection by DatabaseManager, SalesReport or a controller")
+final class DatabaseEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("Class and method that leased the connection")
+    String operation;
+
+    @Label("Connection Wait")
+    @Timespan(Timespan.MICROSECONDS)
+    long connectionWait;
+
+    @Label("Statements")
+    int statements;
+
+    @Label("Rows")
+    @Description("Rows read or written")
+    long rows;
+
+    @Label("BLOB Bytes")
+    @DataAmount
+    long blobBytes;
+
+    @Label("Errors")
+    int errors;
+}
@@ -3,29 +3,66 @@ package com.example;
 import java.sql.*;
 
 public class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:restaurant.db";
-    private static Connection connection;
+    private static final String DEFAULT_DB_FILE = "restaurant.db";
+    private static final int READER_POOL_SIZE = 4;
+    private static final long POOL_TIMEOUT_MS = 5000;
+    private static final int ORDER_ID_BLOCK_SIZE = 50;
+    // Highest order_id in use, to start the order_id sequence above it
+    static final String MAX_ORDER_ID = "SELECT MAX(order_id) FROM orders";
+    private static ConnectionPool pool;
+    private static CheckpointScheduler checkpointScheduler;
+    private static SequenceAllocator orderIds;
 
     // Initialize database and create tables
     public static void initialize() {
-        try {
-            connection = DriverManager.getConnection(DB_URL);
+        initialize(DEFAULT_DB_FILE);
+    }
+
+    // Initialize against another database file (tests and tools use a temporary copy)
+    public static void initialize(String databaseFile) {
+        StorageProfile profile = StorageProfile.fromSystemProperty();
+        pool = new ConnectionPool("jdbc:sqlite:" + databaseFile, READER_POOL_SIZE, POOL_TIMEOUT_MS,
+                profile.connectionPragmas());
+        orderIds = new SequenceAllocator(pool, "order_id", ORDER_ID_BLOCK_SIZE);
+
+        // Hold the writer for the whole schema setup so every step shares one connection
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            profile.enableWriteAheadLog(lease.connection());
             createTables();
             System.out.println("Database initialized successfully!");
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
             e.printStackTrace();
         }
+
+        checkpointScheduler = new CheckpointScheduler(pool, databaseFile);
+        checkpointScheduler.start();
+        registerGauges();
+    }
+
+    // Gauges read at scrape time (see Metrics); they follow whichever pool is current
+    private static void registerGauges() {
+        Metrics.gauge("restaurant_db_pool_readers", "Reader connections by state", () -> pool.getOpenReaderCount(),
+                "state", "open");
+        Metrics.gauge("restaurant_db_pool_readers", "Reader connections by state", () -> pool.getIdleReaderCount(),
+                "state", "idle");
+        Metrics.gauge("restaurant_db_wal_bytes", "Size of the write-ahead log file", DatabaseManager::getWalSizeBytes);
+        Metrics.gauge("restaurant_tables", "Restaurant tables by availability", () -> countTables(true),
+                "state", "free");
+        Metrics.gauge("restaurant_tables", "Restaurant tables by availability", () -> countTables(false),
+                "state", "occupied");
     }
 
     // Migrate database schema for existing databases
     private static void migrateDatabase() {
-        try (Statement stmt = connection.createStatement()) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement()) {
             // Check if order_id column exists, if not add it
             ResultSet rs = stmt.executeQuery("PRAGMA table_info(orders)");
             boolean hasOrderId = false;
             boolean hasTableNumber = false;
             boolean hasStatus = false;
+            boolean hasOrderDay = false;
 
             while (rs.next()) {
                 String columnName = rs.getString("name");
@@ -35,6 +72,8 @@ public class DatabaseManager {
                     hasTableNumber = true;
                 if ("status".equals(columnName))
                     hasStatus = true;
+                if ("order_day".equals(columnName))
+                    hasOrderDay = true;
             }
 
             // Add missing columns to orders table
@@ -50,36 +89,69 @@ public class DatabaseManager {
                 stmt.execute("ALTER TABLE orders ADD COLUMN status TEXT DEFAULT 'Pending'");
                 System.out.println("Added status column to orders table");
             }
+            if (!hasOrderDay) {
+                stmt.execute("ALTER TABLE orders ADD COLUMN order_day INTEGER");
+                System.out.println("Added order_day column to orders table");
+            }
+
+            // Backfill order_day (days since 1970-01-01) from the order_date text
+            int backfilled = stmt.executeUpdate("UPDATE orders SET order_day = "
+                    + "CAST(julianday(substr(order_date, 1, 10)) - julianday('1970-01-01') AS INTEGER) "
+                    + "WHERE order_day IS NULL");
+            if (backfilled > 0) {
+                System.out.println("Backfilled order_day for " + backfilled + " orders");
+            }
 
-            // Check if image_data column exists in menu_items table
+            // Check how menu_items stores its images
             ResultSet menuRs = stmt.executeQuery("PRAGMA table_info(menu_items)");
             boolean hasImageData = false;
-            boolean hasImagePath = false;
+            boolean hasImageHash = false;
+            boolean hasThumbnails = false;
+            boolean hasCategory = false;
 
             while (menuRs.next()) {
                 String columnName = menuRs.getString("name");
                 if ("image_data".equals(columnName)) {
                     hasImageData = true;
                 }
-                if ("image_path".equals(columnName)) {
-                    hasImagePath = true;
+                if ("image_hash".equals(columnName)) {
+                    hasImageHash = true;
+                }
+                if ("thumbnail_hash".equals(columnName)) {
+                    hasThumbnails = true;
+                }
+                if ("category".equals(columnName)) {
+                    hasCategory = true;
                 }
             }
 
-            // Add image_data column if it doesn't exist
-            if (!hasImageData) {
-                stmt.execute("ALTER TABLE menu_items ADD COLUMN image_data BLOB");
-                System.out.println("Added image_data column to menu_items table");
+            // Images now live in the images table; menu_items only keeps their hash
+            if (!hasImageHash) {
+                stmt.execute("ALTER TABLE menu_items ADD COLUMN image_hash TEXT");
+                System.out.println("Added image_hash column to menu_items table");
             }
 
-            // Remove old image_path column if it exists (can't do in SQLite, just ignore
-            // it)
-            if (hasImagePath && !hasImageData) {
-                System.out.println("Note: image_path column exists but will use image_data instead");
+            if (!hasThumbnails) {
+                stmt.execute("ALTER TABLE menu_items ADD COLUMN thumbnail_hash TEXT");
+                stmt.execute("ALTER TABLE menu_items ADD COLUMN thumbnail_large_hash TEXT");
+                System.out.println("Added thumbnail columns to menu_items table");
             }
 
-            // Populate order_id for existing records if needed
-            if (hasOrderId) {
+            if (!hasCategory) {
+                stmt.execute("ALTER TABLE menu_items ADD COLUMN category TEXT");
+                System.out.println("Added category column to menu_items table");
+            }
+
+            // Move images of older databases out of the rows (the emptied image_data column stays)
+            if (hasImageData) {
+                int moved = ImageStore.migrateInlineImages(lease.connection());
+                if (moved > 0) {
+                    System.out.println("Moved " + moved + " menu images to the image store");
+                }
+            }
+
+            // Populate order_id for existing records when the column was just added
+            if (!hasOrderId) {
                 // Assign sequential order_ids to existing orders
                 // Group by client_name, client_number, and order_date
                 ResultSet existingOrders = stmt.executeQuery(
@@ -89,26 +161,26 @@ public class DatabaseManager {
                 String lastClient = "";
                 String lastDate = "";
 
-                while (existingOrders.next()) {
-                    String clientKey = existingOrders.getString("client_name") + "|" +
-                            existingOrders.getString("client_number") + "|" +
-                            existingOrders.getString("order_date");
+                try (PreparedStatement updateStmt = lease.connection().prepareStatement(
+                        "UPDATE orders SET order_id = ? WHERE id = ?")) {
+                    while (existingOrders.next()) {
+                        String clientKey = existingOrders.getString("client_name") + "|" +
+                                existingOrders.getString("client_number") + "|" +
+                                existingOrders.getString("order_date");
 
-                    if (!clientKey.equals(lastClient + "|" + lastDate)) {
-                        currentOrderId++;
-                    }
+                        if (!clientKey.equals(lastClient + "|" + lastDate)) {
+                            currentOrderId++;
+                        }
+
+                        updateStmt.setInt(1, currentOrderId);
+                        updateStmt.setInt(2, existingOrders.getInt("id"));
+                        updateStmt.addBatch();
 
-                    int orderDbId = existingOrders.getInt("id");
-                    PreparedStatement updateStmt = connection.prepareStatement(
-                            "UPDATE orders SET order_id = ? WHERE id = ?");
-                    updateStmt.setInt(1, currentOrderId);
-                    updateStmt.setInt(2, orderDbId);
-                    updateStmt.executeUpdate();
-                    updateStmt.close();
-
-                    lastClient = existingOrders.getString("client_name") + "|" +
-                            existingOrders.getString("client_number");
-                    lastDate = existingOrders.getString("order_date");
+                        lastClient = existingOrders.getString("client_name") + "|" +
+                                existingOrders.getString("client_number");
+                        lastDate = existingOrders.getString("order_date");
+                    }
+                    updateStmt.executeBatch();
                 }
             }
 
@@ -149,7 +221,8 @@ public class DatabaseManager {
                 "quantity INTEGER NOT NULL, " +
                 "price REAL NOT NULL, " +
                 "order_date TEXT NOT NULL, " +
-                "status TEXT DEFAULT 'Pending'" +
+                "status TEXT DEFAULT 'Pending', " +
+                "order_day INTEGER" +
                 ")";
 
         String createReservationsTable = "CREATE TABLE IF NOT EXISTS reservations (" +
@@ -168,20 +241,45 @@ public class DatabaseManager {
                 "name TEXT NOT NULL UNIQUE, " +
                 "price REAL NOT NULL, " +
                 "available INTEGER DEFAULT 1, " +
-                "image_data BLOB" +
+                "image_hash TEXT, " +
+                "thumbnail_hash TEXT, " +
+                "thumbnail_large_hash TEXT, " +
+                "category TEXT" +
                 ")";
 
-        try (Statement stmt = connection.createStatement()) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement()) {
             stmt.execute(createClientTable);
             stmt.execute(createAdminTable);
             stmt.execute(createTablesTable);
             stmt.execute(createOrdersTable);
             stmt.execute(createReservationsTable);
             stmt.execute(createMenuItemsTable);
+            stmt.execute(ImageStore.CREATE_TABLE);
+            stmt.execute(SalesRollup.CREATE_TABLE);
+            stmt.execute(SequenceAllocator.CREATE_TABLE);
 
             // Migrate existing database if needed
             migrateDatabase();
 
+            // Thumbnail images uploaded before the image pipeline existed
+            int thumbnailed = ImagePipeline.backfill(lease.connection());
+            if (thumbnailed > 0) {
+                System.out.println("Created thumbnails for " + thumbnailed + " menu items");
+            }
+
+            // Create any secondary indexes newer than the database's index version
+            IndexManager.apply(lease.connection());
+
+            // Start the order_id counter above any id already in use
+            SequenceAllocator.seed(lease.connection(), "order_id", MAX_ORDER_ID);
+
+            // Fill the daily_sales rollup the first time it exists alongside old orders
+            if (SalesRollup.needsInitialBuild(lease.connection())) {
+                int rows = SalesRollup.rebuild(lease.connection());
+                System.out.println("Built daily_sales rollup (" + rows + " rows)");
+            }
+
             // Add default admin if table is empty
             addDefaultAdmin();
 
@@ -201,12 +299,13 @@ public class DatabaseManager {
         String checkQuery = "SELECT COUNT(*) FROM admin";
         String insertQuery = "INSERT INTO admin (admin_code, admin_password) VALUES (?, ?)";
 
-        try (Statement stmt = connection.createStatement();
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement();
                 ResultSet rs = stmt.executeQuery(checkQuery)) {
 
             if (rs.next() && rs.getInt(1) == 0) {
                 // No admins exist, add default one
-                try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
+                try (PreparedStatement pstmt = lease.connection().prepareStatement(insertQuery)) {
                     pstmt.setString(1, "admin");
                     pstmt.setString(2, "admin123");
                     pstmt.executeUpdate();
@@ -222,14 +321,15 @@ public class DatabaseManager {
     private static void addDefaultTables() {
         String checkQuery = "SELECT COUNT(*) FROM tables";
 
-        try (Statement stmt = connection.createStatement();
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement();
                 ResultSet rs = stmt.executeQuery(checkQuery)) {
 
             if (rs.next() && rs.getInt(1) == 0) {
                 // No tables exist, add default ones
                 String insertQuery = "INSERT INTO tables (max_capacity, availability) VALUES (?, ?)";
 
-                try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
+                try (PreparedStatement pstmt = lease.connection().prepareStatement(insertQuery)) {
                     // Add 10 tables with different capacities
                     int[][] tables = { { 2, 1 }, { 2, 1 }, { 4, 1 }, { 4, 1 }, { 4, 1 }, { 6, 1 }, { 6, 1 }, { 8, 1 },
                             { 8, 1 }, { 10, 1 } };
@@ -252,28 +352,30 @@ public class DatabaseManager {
     private static void addDefaultMenuItems() {
         String checkQuery = "SELECT COUNT(*) FROM menu_items";
 
-        try (Statement stmt = connection.createStatement();
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement();
                 ResultSet rs = stmt.executeQuery(checkQuery)) {
 
             if (rs.next() && rs.getInt(1) == 0) {
                 // No menu items exist, add default ones
-                String insertQuery = "INSERT INTO menu_items (name, price, available) VALUES (?, ?, ?)";
+                String insertQuery = "INSERT INTO menu_items (name, price, available, category) VALUES (?, ?, ?, ?)";
 
-                try (PreparedStatement pstmt = connection.prepareStatement(insertQuery)) {
+                try (PreparedStatement pstmt = lease.connection().prepareStatement(insertQuery)) {
                     // Add default menu items
                     Object[][] menuItems = {
-                            { "Spicy Potato", 12.00, 1 },
-                            { "Pasta", 15.00, 1 },
-                            { "Garlic Bread", 8.00, 1 },
-                            { "Burger", 14.00, 1 },
-                            { "Pizza", 18.00, 1 },
-                            { "Taco", 10.00, 1 }
+                            { "Spicy Potato", 12.00, 1, "Sides" },
+                            { "Pasta", 15.00, 1, "Mains" },
+                            { "Garlic Bread", 8.00, 1, "Sides" },
+                            { "Burger", 14.00, 1, "Mains" },
+                            { "Pizza", 18.00, 1, "Mains" },
+                            { "Taco", 10.00, 1, "Mains" }
                     };
 
                     for (Object[] item : menuItems) {
                         pstmt.setString(1, (String) item[0]);
                         pstmt.setDouble(2, (Double) item[1]);
                         pstmt.setInt(3, (Integer) item[2]);
+                        pstmt.setString(4, (String) item[3]);
                         pstmt.executeUpdate();
                     }
 
@@ -287,21 +389,28 @@ public class DatabaseManager {
 
     // Menu Item CRUD Operations
 
-    // Get all menu items
+    static final String ALL_MENU_ITEMS = "SELECT m.id, m.name, m.price, m.available, m.image_hash, i.byte_size, " +
+            "m.thumbnail_hash, m.thumbnail_large_hash, m.category " +
+            "FROM menu_items m LEFT JOIN images i ON i.hash = m.image_hash ORDER BY m.name";
+
+    // Get all menu items; image bytes are not read, only their hash and size
     public static java.util.List<MenuItem> getAllMenuItems() {
         java.util.List<MenuItem> menuItems = new java.util.ArrayList<>();
-        String query = "SELECT id, name, price, available, image_data FROM menu_items ORDER BY name";
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(ALL_MENU_ITEMS)) {
 
             while (rs.next()) {
-                menuItems.add(new MenuItem(
+                MenuItem item = new MenuItem(
                         rs.getInt("id"),
                         rs.getString("name"),
                         rs.getDouble("price"),
                         rs.getInt("available") == 1,
-                        rs.getBytes("image_data")));
+                        rs.getString("image_hash"),
+                        rs.getInt("byte_size"));
+                item.setThumbnailHashes(rs.getString("thumbnail_hash"), rs.getString("thumbnail_large_hash"));
+                item.setCategory(rs.getString("category"));
+                menuItems.add(item);
             }
         } catch (SQLException e) {
             System.err.println("Error getting menu items: " + e.getMessage());
@@ -310,32 +419,73 @@ public class DatabaseManager {
         return menuItems;
     }
 
-    // Add new menu item
-    public static boolean addMenuItem(String name, double price, boolean available, byte[] imageData) {
-        String query = "INSERT INTO menu_items (name, price, available, image_data) VALUES (?, ?, ?, ?)";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, name.trim());
-            pstmt.setDouble(2, price);
-            pstmt.setInt(3, available ? 1 : 0);
-            pstmt.setBytes(4, imageData);
-            pstmt.executeUpdate();
-            return true;
+    // Add new menu item; the image is scaled and thumbnailed before the write lock is taken
+    public static boolean addMenuItem(String name, String category, double price, boolean available,
+            byte[] imageData) {
+        String query = "INSERT INTO menu_items "
+                + "(name, price, available, image_hash, thumbnail_hash, thumbnail_large_hash, category) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        ImagePipeline.ProcessedImage image = ImagePipeline.process(imageData);
+
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            return inTransaction(lease.connection(), conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                    pstmt.setString(1, name.trim());
+                    pstmt.setDouble(2, price);
+                    pstmt.setInt(3, available ? 1 : 0);
+                    bindImage(conn, pstmt, 4, image);
+                    pstmt.setString(7, blankToNull(category));
+                    pstmt.executeUpdate();
+                    return true;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error adding menu item: " + e.getMessage());
             return false;
         }
     }
 
-    // Update menu item
-    public static boolean updateMenuItem(int id, String newName, double price, boolean available, byte[] imageData) {
-        String query = "UPDATE menu_items SET name = ?, price = ?, available = ?, image_data = ? WHERE id = ?";
+    static final String UPDATE_MENU_ITEM = "UPDATE menu_items SET name = ?, price = ?, available = ?, "
+            + "image_hash = ?, thumbnail_hash = ?, thumbnail_large_hash = ?, category = ? WHERE id = ?";
+
+    // Update menu item with a new image (null removes the image)
+    public static boolean updateMenuItem(int id, String newName, String category, double price, boolean available,
+            byte[] imageData) {
+        ImagePipeline.ProcessedImage image = ImagePipeline.process(imageData);
+
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            return inTransaction(lease.connection(), conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_MENU_ITEM)) {
+                    pstmt.setString(1, newName.trim());
+                    pstmt.setDouble(2, price);
+                    pstmt.setInt(3, available ? 1 : 0);
+                    bindImage(conn, pstmt, 4, image);
+                    pstmt.setString(7, blankToNull(category));
+                    pstmt.setInt(8, id);
+                    int rowsAffected = pstmt.executeUpdate();
+                    // Drop the old image if nothing else uses it
+                    ImageStore.deleteUnreferenced(conn);
+                    return rowsAffected > 0;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error updating menu item: " + e.getMessage());
+            return false;
+        }
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+    static final String UPDATE_MENU_ITEM_DETAILS =
+            "UPDATE menu_items SET name = ?, price = ?, available = ?, category = ? WHERE id = ?";
+
+    // Update name, price and availability, keeping the current image
+    public static boolean updateMenuItemDetails(int id, String newName, String category, double price,
+            boolean available) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(UPDATE_MENU_ITEM_DETAILS)) {
             pstmt.setString(1, newName.trim());
             pstmt.setDouble(2, price);
             pstmt.setInt(3, available ? 1 : 0);
-            pstmt.setBytes(4, imageData);
+            pstmt.setString(4, blankToNull(category));
             pstmt.setInt(5, id);
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -345,25 +495,44 @@ public class DatabaseManager {
         }
     }
 
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // Store a processed image and bind its three hashes starting at index
+    private static void bindImage(Connection conn, PreparedStatement pstmt, int index,
+            ImagePipeline.ProcessedImage image) throws SQLException {
+        pstmt.setString(index, image != null ? ImageStore.put(conn, image.original()) : null);
+        pstmt.setString(index + 1, image != null ? ImageStore.put(conn, image.thumbnail()) : null);
+        pstmt.setString(index + 2, image != null ? ImageStore.put(conn, image.largeThumbnail()) : null);
+    }
+
+    static final String DELETE_MENU_ITEM = "DELETE FROM menu_items WHERE id = ?";
+
     // Delete menu item
     public static boolean deleteMenuItem(int id) {
-        String query = "DELETE FROM menu_items WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, id);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            return inTransaction(lease.connection(), conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_MENU_ITEM)) {
+                    pstmt.setInt(1, id);
+                    int rowsAffected = pstmt.executeUpdate();
+                    ImageStore.deleteUnreferenced(conn);
+                    return rowsAffected > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting menu item: " + e.getMessage());
             return false;
         }
     }
 
+    static final String TOGGLE_MENU_ITEM_AVAILABILITY =
+            "UPDATE menu_items SET available = CASE WHEN available = 1 THEN 0 ELSE 1 END WHERE id = ?";
+
     // Toggle menu item availability
     public static boolean toggleMenuItemAvailability(int id) {
-        String query = "UPDATE menu_items SET available = CASE WHEN available = 1 THEN 0 ELSE 1 END WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(TOGGLE_MENU_ITEM_AVAILABILITY)) {
             pstmt.setInt(1, id);
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -442,13 +611,14 @@ public class DatabaseManager {
         }
     }
 
+    static final String AVAILABLE_TABLES = "SELECT id, max_capacity, availability FROM tables WHERE availability = 1";
+
     // Get all available tables
     public static java.util.List<Table> getAvailableTables() {
         java.util.List<Table> tables = new java.util.ArrayList<>();
-        String query = "SELECT id, max_capacity, availability FROM tables WHERE availability = 1";
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(AVAILABLE_TABLES)) {
 
             while (rs.next()) {
                 tables.add(new Table(
@@ -463,11 +633,28 @@ public class DatabaseManager {
         return tables;
     }
 
+    static final String COUNT_TABLES = "SELECT COUNT(*) FROM tables WHERE availability = ?";
+
+    // Number of free (available) or occupied tables, NaN if they cannot be counted
+    static double countTables(boolean available) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(COUNT_TABLES)) {
+            pstmt.setInt(1, available ? 1 : 0);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting tables: " + e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    static final String TABLE_BY_ID = "SELECT id, max_capacity, availability FROM tables WHERE id = ?";
+
     // Get table by ID
     public static Table getTableById(int tableId) {
-        String query = "SELECT id, max_capacity, availability FROM tables WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(TABLE_BY_ID)) {
             pstmt.setInt(1, tableId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -485,11 +672,12 @@ public class DatabaseManager {
         return null;
     }
 
+    static final String RESERVE_TABLE = "UPDATE tables SET availability = 0 WHERE id = ? AND availability = 1";
+
     // Reserve a table (set availability to 0)
     public static boolean reserveTable(int tableId) {
-        String query = "UPDATE tables SET availability = 0 WHERE id = ? AND availability = 1";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(RESERVE_TABLE)) {
             pstmt.setInt(1, tableId);
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -499,11 +687,12 @@ public class DatabaseManager {
         }
     }
 
+    static final String RELEASE_TABLE = "UPDATE tables SET availability = 1 WHERE id = ?";
+
     // Release a table (set availability to 1)
     public static boolean releaseTable(int tableId) {
-        String query = "UPDATE tables SET availability = 1 WHERE id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(RELEASE_TABLE)) {
             pstmt.setInt(1, tableId);
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -513,11 +702,12 @@ public class DatabaseManager {
         }
     }
 
+    static final String CLIENT_EXISTS = "SELECT COUNT(*) FROM client WHERE name = ? AND number = ?";
+
     // Check if client exists by name and number
     public static boolean clientExists(String name, String number) {
-        String query = "SELECT COUNT(*) FROM client WHERE name = ? AND number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(CLIENT_EXISTS)) {
             pstmt.setString(1, name);
             pstmt.setString(2, number);
 
@@ -534,11 +724,12 @@ public class DatabaseManager {
         return false;
     }
 
+    static final String NUMBER_EXISTS = "SELECT COUNT(*) FROM client WHERE number = ?";
+
     // Check if client number already exists
     public static boolean isNumberExists(String number) {
-        String query = "SELECT COUNT(*) FROM client WHERE number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(NUMBER_EXISTS)) {
             pstmt.setString(1, number);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -563,7 +754,8 @@ public class DatabaseManager {
 
         String query = "INSERT INTO client (name, number) VALUES (?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(query)) {
             pstmt.setString(1, name);
             pstmt.setString(2, number);
             pstmt.executeUpdate();
@@ -575,11 +767,12 @@ public class DatabaseManager {
         }
     }
 
+    static final String VERIFY_ADMIN = "SELECT COUNT(*) FROM admin WHERE admin_code = ? AND admin_password = ?";
+
     // Verify admin credentials
     public static boolean verifyAdmin(String adminCode, String password) {
-        String query = "SELECT COUNT(*) FROM admin WHERE admin_code = ? AND admin_password = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(VERIFY_ADMIN)) {
             pstmt.setString(1, adminCode);
             pstmt.setString(2, password);
 
@@ -600,7 +793,8 @@ public class DatabaseManager {
     public static boolean addAdmin(String adminCode, String password) {
         String query = "INSERT INTO admin (admin_code, admin_password) VALUES (?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(query)) {
             pstmt.setString(1, adminCode);
             pstmt.setString(2, password);
             pstmt.executeUpdate();
@@ -615,57 +809,113 @@ public class DatabaseManager {
     // Add new order to database
     public static boolean addOrder(String clientName, String clientNumber, String itemName,
             int quantity, double price, String orderDate) {
-        // Get next order_id (group orders by client and date)
-        int orderId = getNextOrderId(clientName, clientNumber, orderDate);
+        return insertOrder(clientName, clientNumber, java.util.List.of(new OrderItem(itemName, quantity, price)),
+                orderDate) > 0;
+    }
 
-        // Get table number from reservation if exists
-        int tableNumber = getClientTableNumber(clientName, clientNumber);
+    /**
+     * Place a multi-line order: one order_id and one table lookup for the whole cart,
+     * and every line inserted as a JDBC batch in a single transaction (one commit).
+     */
+    public static boolean placeOrder(String clientName, String clientNumber, java.util.List<OrderItem> lines) {
+        return placeOrderReturningId(clientName, clientNumber, lines) > 0;
+    }
 
-        System.out.println("Adding order for " + clientName + " " + clientNumber + " at table " + tableNumber);
+    /**
+     * Same as placeOrder, for callers that report the new order back (ApiServer).
+     * @return the new order_id, or -1 if the order could not be placed
+     */
+    public static int placeOrderReturningId(String clientName, String clientNumber,
+            java.util.List<OrderItem> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return -1;
+        }
+        return insertOrder(clientName, clientNumber, lines, Order.getCurrentTimestamp());
+    }
 
-        String query = "INSERT INTO orders (order_id, client_name, client_number, table_number, item_name, quantity, price, order_date, status) "
+    // Returns the new order_id, or -1 on failure
+    private static int insertOrder(String clientName, String clientNumber, java.util.List<OrderItem> lines,
+            String orderDate) {
+        String query = "INSERT INTO orders (order_id, client_name, client_number, table_number, item_name, quantity, price, order_date, status, order_day) "
                 +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, orderId);
-            pstmt.setString(2, clientName);
-            pstmt.setString(3, clientNumber);
-            pstmt.setInt(4, tableNumber);
-            pstmt.setString(5, itemName);
-            pstmt.setInt(6, quantity);
-            pstmt.setDouble(7, price);
-            pstmt.setString(8, orderDate);
-            pstmt.setString(9, Order.STATUS_PENDING);
-            pstmt.executeUpdate();
-            return true;
+        // Get table number from reservation if exists (on a reader, before queueing for the writer)
+        int tableNumber = getClientTableNumber(clientName, clientNumber);
+        Long orderDay = orderDayOf(orderDate);
+        System.out.println("Adding order for " + clientName + " " + clientNumber + " at table " + tableNumber);
+
+        ChangeFeed.OrderPlaced placed;
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            // Allocated under the writer lease so order ids follow commit order
+            int orderId = getNextOrderId();
+
+            // The order rows and their daily_sales rollup commit together
+            inTransaction(lease.connection(), conn -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                    for (OrderItem line : lines) {
+                        pstmt.setInt(1, orderId);
+                        pstmt.setString(2, clientName);
+                        pstmt.setString(3, clientNumber);
+                        pstmt.setInt(4, tableNumber);
+                        pstmt.setString(5, line.getItemName());
+                        pstmt.setInt(6, line.getQuantity());
+                        pstmt.setDouble(7, line.getPrice());
+                        pstmt.setString(8, orderDate);
+                        pstmt.setString(9, Order.STATUS_PENDING);
+                        if (orderDay != null) {
+                            pstmt.setLong(10, orderDay);
+                        } else {
+                            pstmt.setNull(10, Types.INTEGER);
+                        }
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                if (orderDay != null) {
+                    SalesRollup.recordOrderLines(conn, orderDay, lines);
+                }
+                return true;
+            });
+            placed = new ChangeFeed.OrderPlaced(orderId, clientName, clientNumber, tableNumber, orderDate,
+                    java.util.List.copyOf(lines));
         } catch (SQLException e) {
             System.err.println("Error adding order: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return -1;
         }
+
+        ChangeFeed.publish(placed);
+        return placed.orderId();
     }
 
-    // Get next order ID for grouping orders
-    private static int getNextOrderId(String clientName, String clientNumber, String orderDate) {
-        // For simplicity, use a sequential order ID starting from 1
-        String query = "SELECT MAX(order_id) as max_id FROM orders";
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
-            if (rs.next()) {
-                int maxId = rs.getInt("max_id");
-                return maxId + 1;
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting next order ID: " + e.getMessage());
+    // Day number of an order_date ("yyyy-MM-dd HH:mm:ss"), null if it cannot be parsed
+    private static Long orderDayOf(String orderDate) {
+        try {
+            return toOrderDay(java.time.LocalDate.parse(orderDate.substring(0, 10)));
+        } catch (RuntimeException e) {
+            return null;
         }
-        return 1; // Start with 1 if no orders exist
     }
 
+    // Day number stored in orders.order_day, used for indexed date-range queries
+    public static long toOrderDay(java.time.LocalDate date) {
+        return date.toEpochDay();
+    }
+
+    // Get next order ID from the order_id sequence (unique across threads, may skip ids)
+    private static int getNextOrderId() throws SQLException {
+        return Math.toIntExact(orderIds.next());
+    }
+
+    static final String CLIENT_TABLE_NUMBER =
+            "SELECT table_id FROM reservations WHERE client_name = TRIM(?) AND client_number = TRIM(?)";
+
     // Get table number from client's reservation (public for testing)
     public static int getClientTableNumber(String clientName, String clientNumber) {
-        String query = "SELECT table_id FROM reservations WHERE TRIM(client_name) = TRIM(?) AND TRIM(client_number) = TRIM(?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        // Reservations are stored trimmed, so only the parameters need TRIM and the unique index still applies
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(CLIENT_TABLE_NUMBER)) {
             pstmt.setString(1, clientName);
             pstmt.setString(2, clientNumber);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -674,10 +924,6 @@ public class DatabaseManager {
                     System.out.println(
                             "Found reservation for '" + clientName + "' '" + clientNumber + "' at table " + tableId);
                     return tableId;
-                } else {
-                    System.out.println("No reservation found for '" + clientName + "' '" + clientNumber + "'");
-                    // Debug: list all reservations
-                    listAllReservations();
                 }
             }
         } catch (SQLException e) {
@@ -686,26 +932,14 @@ public class DatabaseManager {
         return 0; // No reservation
     }
 
-    // Debug method to list all reservations
-    private static void listAllReservations() {
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT * FROM reservations")) {
-            System.out.println("All reservations in database:");
-            while (rs.next()) {
-                System.out.println("  " + rs.getString("client_name") + " " + rs.getString("client_number")
-                        + " -> table " + rs.getInt("table_id"));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error listing reservations: " + e.getMessage());
-        }
-    }
+    static final String CLIENT_ORDERS =
+            "SELECT * FROM orders WHERE client_name = ? AND client_number = ? ORDER BY order_date DESC";
 
     // Get all orders for a specific client
     public static java.util.List<Order> getClientOrders(String clientName, String clientNumber) {
         java.util.List<Order> orders = new java.util.ArrayList<>();
-        String query = "SELECT * FROM orders WHERE client_name = ? AND client_number = ? ORDER BY order_date DESC";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(CLIENT_ORDERS)) {
             pstmt.setString(1, clientName);
             pstmt.setString(2, clientNumber);
 
@@ -732,13 +966,14 @@ public class DatabaseManager {
         return orders;
     }
 
+    static final String ALL_ORDERS = "SELECT * FROM orders ORDER BY order_date DESC";
+
     // Get all orders (for admin view if needed)
     public static java.util.List<Order> getAllOrders() {
         java.util.List<Order> orders = new java.util.ArrayList<>();
-        String query = "SELECT * FROM orders ORDER BY order_date DESC";
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(ALL_ORDERS)) {
 
             while (rs.next()) {
                 orders.add(new Order(
@@ -761,32 +996,67 @@ public class DatabaseManager {
         return orders;
     }
 
-    // Get order summaries (grouped by order_id)
+    // Get order summaries (grouped by order_id) with their line items
     public static java.util.List<OrderSummary> getOrderSummaries() {
+        return getOrderSummaries(true);
+    }
+
+    static final String ORDER_SUMMARY_LINES = "SELECT id, order_id, client_name, client_number, table_number, " +
+            "item_name, quantity, price, order_date, status " +
+            "FROM orders ORDER BY order_id ASC, id ASC";
+
+    /**
+     * Get order summaries in a single pass over the orders table.
+     * Rows are streamed in order_id order and folded into one OrderSummary per order,
+     * so the whole list costs one query instead of one query per order.
+     * @param loadItems false to skip building the line items; they are then loaded
+     *                  on first call to OrderSummary.getOrderItems()
+     */
+    public static java.util.List<OrderSummary> getOrderSummaries(boolean loadItems) {
         java.util.List<OrderSummary> summaries = new java.util.ArrayList<>();
-        String query = "SELECT order_id, table_number, order_date, client_name, client_number, " +
-                "SUM(quantity * price) as total, status " +
-                "FROM orders " +
-                "GROUP BY order_id, table_number, order_date, client_name, client_number, status " +
-                "ORDER BY order_id ASC";
+        try (ConnectionPool.Lease lease = pool.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(ORDER_SUMMARY_LINES)) {
 
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+            OrderSummary current = null;
+            java.util.List<Order> currentItems = null;
+            double currentTotal = 0;
 
             while (rs.next()) {
                 int orderId = rs.getInt("order_id");
-                int tableNumber = rs.getInt("table_number");
-                String date = rs.getString("order_date");
-                String clientName = rs.getString("client_name");
-                String clientNumber = rs.getString("client_number");
-                double total = rs.getDouble("total");
-                String status = rs.getString("status");
+                int quantity = rs.getInt("quantity");
+                double price = rs.getDouble("price");
 
-                // Get order items for this order
-                java.util.List<Order> orderItems = getOrdersByOrderId(orderId);
+                if (current == null || current.getOrderId() != orderId) {
+                    if (current != null) {
+                        current.setTotal(currentTotal);
+                    }
+                    currentItems = loadItems ? new java.util.ArrayList<>() : null;
+                    currentTotal = 0;
+                    current = new OrderSummary(orderId, rs.getInt("table_number"), rs.getString("order_date"),
+                            0, rs.getString("status"), rs.getString("client_name"),
+                            rs.getString("client_number"), currentItems);
+                    summaries.add(current);
+                }
 
-                summaries.add(new OrderSummary(orderId, tableNumber, date, total, status,
-                        clientName, clientNumber, orderItems));
+                currentTotal += quantity * price;
+                if (loadItems) {
+                    currentItems.add(new Order(
+                            rs.getInt("id"),
+                            orderId,
+                            rs.getString("client_name"),
+                            rs.getString("client_number"),
+                            rs.getInt("table_number"),
+                            rs.getString("item_name"),
+                            quantity,
+                            price,
+                            rs.getString("order_date"),
+                            rs.getString("status")));
+                }
+            }
+
+            if (current != null) {
+                current.setTotal(currentTotal);
             }
         } catch (SQLException e) {
             System.err.println("Error getting order summaries: " + e.getMessage());
@@ -796,12 +1066,56 @@ public class DatabaseManager {
         return summaries;
     }
 
+    /**
+     * One page of order summaries for the admin orders table, without line items.
+     * Orders are paged by order_id (ids are handed out in placement order, so this is
+     * also date order); request.filter is a status to show only, or null for all.
+     * A database error is thrown unchecked so callers can report it rather than show an empty page.
+     */
+    public static java.util.List<OrderSummary> getOrderSummaryPage(PageRequest<OrderSummary> request) {
+        java.util.List<OrderSummary> summaries = new java.util.ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(orderSummaryPageQuery(request))) {
+            int index = 1;
+            if (request.anchor() != null) {
+                pstmt.setInt(index++, request.anchor().getOrderId());
+            }
+            if (request.filter() != null) {
+                pstmt.setString(index++, request.filter());
+            }
+            pstmt.setInt(index, request.limit());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new OrderSummary(rs.getInt("order_id"), rs.getInt("table_number"),
+                            rs.getString("order_date"), rs.getDouble("total"), rs.getString("status"),
+                            rs.getString("client_name"), rs.getString("client_number"), null));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        return request.inDisplayOrder(summaries);
+    }
+
+    // Statement of getOrderSummaryPage for this request
+    static String orderSummaryPageQuery(PageRequest<?> request) {
+        // Table, date, status and client are the same on every line of an order
+        return "SELECT order_id, table_number, order_date, status, client_name, client_number, " +
+                "SUM(quantity * price) AS total FROM orders WHERE 1 = 1" +
+                (request.anchor() != null ? " AND " + request.seek("order_id") : "") +
+                (request.filter() != null ? " AND status = ?" : "") +
+                " GROUP BY order_id ORDER BY " + request.orderBy("order_id") + " LIMIT ?";
+    }
+
+    static final String ORDERS_BY_ORDER_ID = "SELECT * FROM orders WHERE order_id = ?";
+
     // Get orders by order_id
-    private static java.util.List<Order> getOrdersByOrderId(int orderId) {
+    public static java.util.List<Order> getOrdersByOrderId(int orderId) {
         java.util.List<Order> orders = new java.util.ArrayList<>();
-        String query = "SELECT * FROM orders WHERE order_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(ORDERS_BY_ORDER_ID)) {
             pstmt.setInt(1, orderId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -825,20 +1139,32 @@ public class DatabaseManager {
         return orders;
     }
 
+    static final String UPDATE_ORDER_STATUS = "UPDATE orders SET status = ? WHERE order_id = ?";
+
     // Update order status
     public static boolean updateOrderStatus(int orderId, String status) {
-        String query = "UPDATE orders SET status = ? WHERE order_id = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setString(1, status);
-            pstmt.setInt(2, orderId);
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+        boolean updated;
+        try (ConnectionPool.Lease lease = pool.writer()) {
+            // Adjust the rollup's cancelled counts in the same transaction as the status change
+            updated = inTransaction(lease.connection(), conn -> {
+                SalesRollup.applyStatusChange(conn, orderId, status);
+                try (PreparedStatement pstmt = conn.prepareStatement(UPDATE_ORDER_STATUS)) {
+                    pstmt.setString(1, status);
+                    pstmt.setInt(2, orderId);
+                    int rowsAffected = pstmt.executeUpdate();
+                    return rowsAffected > 0;
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating order status: " + e.getMessage());
             e.printStackTrace();
             return false;
         }
+
+        if (updated) {
+            ChangeFeed.publish(new ChangeFeed.OrderStatusChanged(orderId, status));
+        }
+        return updated;
     }
 
     // Add a new reservation
@@ -867,7 +1193,8 @@ public class DatabaseManager {
                 +
                 "VALUES (?, ?, ?, ?, datetime('now'))";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(query)) {
             pstmt.setString(1, clientName.trim());
             pstmt.setString(2, clientNumber.trim());
             pstmt.setInt(3, tableId);
@@ -875,20 +1202,23 @@ public class DatabaseManager {
             pstmt.executeUpdate();
             System.out.println(
                     "Added reservation for " + clientName.trim() + " " + clientNumber.trim() + " at table " + tableId);
-            return true;
         } catch (SQLException e) {
             System.err.println("Error adding reservation: " + e.getMessage());
             // Rollback table reservation
             releaseTable(tableId);
             return false;
         }
+
+        ChangeFeed.publish(new ChangeFeed.ReservationAdded(clientName.trim(), clientNumber.trim(), tableId, partySize));
+        return true;
     }
 
+    static final String CLIENT_RESERVATION = "SELECT * FROM reservations WHERE client_name = ? AND client_number = ?";
+
     // Get reservation for a specific client
     public static Reservation getClientReservation(String clientName, String clientNumber) {
-        String query = "SELECT * FROM reservations WHERE client_name = ? AND client_number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(CLIENT_RESERVATION)) {
             pstmt.setString(1, clientName);
             pstmt.setString(2, clientNumber);
 
@@ -910,6 +1240,9 @@ public class DatabaseManager {
         return null;
     }
 
+    static final String CANCEL_CLIENT_RESERVATION =
+            "DELETE FROM reservations WHERE client_name = ? AND client_number = ?";
+
     // Cancel a client's reservation
     public static boolean cancelClientReservation(String clientName, String clientNumber) {
         Reservation reservation = getClientReservation(clientName, clientNumber);
@@ -919,32 +1252,32 @@ public class DatabaseManager {
         }
 
         // Delete reservation record
-        String query = "DELETE FROM reservations WHERE client_name = ? AND client_number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (ConnectionPool.Lease lease = pool.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(CANCEL_CLIENT_RESERVATION)) {
             pstmt.setString(1, clientName);
             pstmt.setString(2, clientNumber);
-            int rowsAffected = pstmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                // Release the table
-                releaseTable(reservation.getTableId());
-                return true;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
             }
+            // Release the table
+            releaseTable(reservation.getTableId());
         } catch (SQLException e) {
             System.err.println("Error cancelling reservation: " + e.getMessage());
+            return false;
         }
 
-        return false;
+        ChangeFeed.publish(new ChangeFeed.ReservationCancelled(clientName, clientNumber, reservation.getTableId()));
+        return true;
     }
 
+    static final String ALL_RESERVATIONS = "SELECT * FROM reservations ORDER BY reservation_date DESC";
+
     // Get all reservations (for admin view if needed)
     public static java.util.List<Reservation> getAllReservations() {
         java.util.List<Reservation> reservations = new java.util.ArrayList<>();
-        String query = "SELECT * FROM reservations ORDER BY reservation_date DESC";
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (ConnectionPool.Lease lease = pool.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(ALL_RESERVATIONS)) {
 
             while (rs.next()) {
                 reservations.add(new Reservation(
@@ -962,12 +1295,13 @@ public class DatabaseManager {
         return reservations;
     }
 
+    static final String CLEAR_CLIENTS = "DELETE FROM client";
+
     // Clear all clients from the client table
     public static boolean clearClientsTable() {
-        String query = "DELETE FROM client";
-
-        try (Statement stmt = connection.createStatement()) {
-            int rowsAffected = stmt.executeUpdate(query);
+        try (ConnectionPool.Lease lease = pool.writer();
+                Statement stmt = lease.connection().createStatement()) {
+            int rowsAffected = stmt.executeUpdate(CLEAR_CLIENTS);
             System.out.println("Cleared " + rowsAffected + " clients from the database");
             return true;
         } catch (SQLException e) {
@@ -976,15 +1310,76 @@ public class DatabaseManager {
         }
     }
 
-    // Close database connection
-    public static void close() {
+    // Work run inside a transaction by inTransaction()
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Run work in a transaction on the given writer connection and commit it.
+     * If a transaction is already open on the connection the work simply joins it.
+     */
+    static <T> T inTransaction(Connection connection, SqlWork<T> work) throws SQLException {
+        if (!connection.getAutoCommit()) {
+            return work.run(connection);
+        }
+
+        connection.setAutoCommit(false);
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database: " + e.getMessage());
+            T result = work.run(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Lease a pooled read connection (for queries issued outside this class)
+    static ConnectionPool.Lease reader() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database not initialized");
+        }
+        return pool.reader();
+    }
+
+    // Lease the pooled writer connection (for statements issued outside this class)
+    static ConnectionPool.Lease writer() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database not initialized");
+        }
+        return pool.writer();
+    }
+
+    // Size of the write-ahead log file in bytes
+    public static long getWalSizeBytes() {
+        return checkpointScheduler != null ? checkpointScheduler.getWalSizeBytes() : 0;
+    }
+
+    // Time of the last WAL checkpoint, null if none has run since startup
+    public static java.time.LocalDateTime getLastCheckpointTime() {
+        return checkpointScheduler != null ? checkpointScheduler.getLastCheckpointTime() : null;
+    }
+
+    // Prepared statement cache counters, null before initialize()
+    public static StatementCache.Stats getStatementCacheStats() {
+        return pool != null ? pool.getStatementCacheStats() : null;
+    }
+
+    // Close all pooled database connections
+    public static void close() {
+        if (checkpointScheduler != null) {
+            checkpointScheduler.stop();
+            // Fold the WAL back into the main file so the next start begins clean
+            checkpointScheduler.checkpoint("TRUNCATE", true);
+            checkpointScheduler = null;
+        }
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+            System.out.println("Database connections closed.");
         }
     }
 }
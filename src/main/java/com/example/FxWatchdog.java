@@ -0,0 +1,161 @@
+package com.example;
+
+import javafx.application.Platform;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Watchdog for the JavaFX application thread.
+ * A background thread posts a heartbeat to the FX thread every few milliseconds and
+ * times how long it takes to run. Pulses and events queue behind a blocked FX thread
+ * just like the heartbeat, so a late heartbeat means the screen is frozen. Once a
+ * heartbeat is late by more than the threshold, the FX thread's stack is captured and
+ * logged with the screen being shown (or opened), and the stall is counted for that
+ * screen; when the thread resumes, the total stall time is logged.
+ * A stack showing a DatabaseManager call under a controller's initialize() or a button
+ * handler is the synchronous call that froze the register.
+ *
+ * Settings (system properties):
+ *   restaurant.fx.watchdog=false   turn the watchdog off
+ *   restaurant.fx.stallMs=250      stall threshold in milliseconds
+ *   restaurant.fx.stallLog=fx-stalls.log   log file; rotates at 1 MB, 5 files kept
+ *
+ * Metrics: restaurant_fx_heartbeat_delay_seconds (how long the FX thread took to run a
+ * heartbeat) and restaurant_fx_stalls_total by screen.
+ */
+public class FxWatchdog {
+    private static final boolean ENABLED = !"false".equals(System.getProperty("restaurant.fx.watchdog"));
+    private static final long STALL_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("restaurant.fx.stallMs", 250));
+    private static final String STALL_LOG = System.getProperty("restaurant.fx.stallLog", "fx-stalls.log");
+    // Heartbeats are posted several times per threshold, so a stall is caught soon after it crosses it
+    private static final long CHECK_MILLIS = Math.max(10, TimeUnit.NANOSECONDS.toMillis(STALL_NANOS) / 5);
+    private static final int MAX_FRAMES = 60;
+
+    private static final LatencyHistogram heartbeatDelay = Metrics.histogram("restaurant_fx_heartbeat_delay_seconds",
+            "Time the FX thread took to run a posted heartbeat", Metrics.LATENCY_BUCKETS);
+
+    private static Thread fxThread;
+    private static Thread watchdog;
+    private static volatile boolean running;
+
+    // Heartbeat in flight: posted at postedNanos and not yet run by the FX thread
+    private static volatile boolean beatPending;
+    private static volatile long postedNanos;
+    private static volatile long lastDelayNanos;
+    private static final Runnable BEAT = () -> {
+        long delay = System.nanoTime() - postedNanos;
+        heartbeatDelay.record(delay / 1000);
+        lastDelayNanos = delay;
+        beatPending = false;
+    };
+
+    // Stall being reported (watchdog thread only)
+    private static String stalledScreen;
+
+    /**
+     * Start watching the FX thread. Call on the FX thread, e.g. from Application.start().
+     */
+    public static synchronized void start() {
+        if (!ENABLED || watchdog != null) {
+            return;
+        }
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("FxWatchdog.start() must be called on the FX application thread");
+        }
+        fxThread = Thread.currentThread();
+        running = true;
+        watchdog = new Thread(FxWatchdog::watch, "fx-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    public static synchronized void stop() {
+        running = false;
+        if (watchdog != null) {
+            watchdog.interrupt();
+            watchdog = null;
+        }
+    }
+
+    private static void watch() {
+        Logger log = null;
+        boolean logFailed = false;
+        while (running) {
+            try {
+                Thread.sleep(CHECK_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (!beatPending) {
+                if (stalledScreen != null) {
+                    // The heartbeat that was stuck has run: the stall is over
+                    String message = String.format("%s FX thread resumed after %d ms on %s", LocalDateTime.now(),
+                            TimeUnit.NANOSECONDS.toMillis(lastDelayNanos), stalledScreen);
+                    System.err.println(message);
+                    if (log != null) {
+                        log.info(message);
+                    }
+                    stalledScreen = null;
+                }
+                postedNanos = System.nanoTime();
+                beatPending = true;
+                try {
+                    Platform.runLater(BEAT);
+                } catch (IllegalStateException e) {
+                    // The FX toolkit has exited
+                    return;
+                }
+                continue;
+            }
+
+            long stalledNanos = System.nanoTime() - postedNanos;
+            if (stalledScreen == null && stalledNanos > STALL_NANOS) {
+                stalledScreen = describeScreen();
+                Metrics.counter("restaurant_fx_stalls_total", "FX thread stalls over the threshold, by screen",
+                        "screen", screenLabel()).increment();
+                String entry = stallEntry(stalledNanos, stalledScreen, fxThread.getStackTrace());
+                System.err.println(String.format("FX thread stalled for over %d ms on %s (stack in %s)",
+                        TimeUnit.NANOSECONDS.toMillis(STALL_NANOS), stalledScreen, STALL_LOG));
+                if (log == null && !logFailed) {
+                    log = LogFiles.open(STALL_LOG, "com.example.fxstalls");
+                    logFailed = log == null;
+                }
+                if (log != null) {
+                    log.info(entry);
+                }
+            }
+        }
+    }
+
+    // "admin_orders", or "admin_orders (opening, from admin)" while its FXML is loading
+    private static String describeScreen() {
+        String loading = App.getLoadingScreen();
+        String current = App.getCurrentScreen();
+        if (loading != null) {
+            return loading + " (opening, from " + current + ")";
+        }
+        return String.valueOf(current);
+    }
+
+    private static String screenLabel() {
+        String loading = App.getLoadingScreen();
+        return String.valueOf(loading != null ? loading : App.getCurrentScreen());
+    }
+
+    private static String stallEntry(long stalledNanos, String screen, StackTraceElement[] stack) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(String.format("%s FX thread stalled %d ms on %s", LocalDateTime.now(),
+                TimeUnit.NANOSECONDS.toMillis(stalledNanos), screen));
+        for (int i = 0; i < Math.min(stack.length, MAX_FRAMES); i++) {
+            entry.append(System.lineSeparator()).append("  at ").append(stack[i]);
+        }
+        if (stack.length > MAX_FRAMES) {
+            entry.append(System.lineSeparator()).append("  ... ").append(stack.length - MAX_FRAMES).append(" more");
+        }
+        return entry.toString();
+    }
+}
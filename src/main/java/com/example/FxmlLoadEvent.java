@@ -0,0 +1,31 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one FXML load: parsing the file, creating the nodes and running the
+ * controller's initialize(). Cached screens are loaded once (see ScreenCache).
+ */
+@Name("com.example.FxmlLoad")
+@Label("FXML Load")
+@Category({ "Restaurant", "JavaFX" })
+@Description("Parse of an FXML screen, including its controller's initialize()")
+final class FxmlLoadEvent extends jdk.jfr.Event {
+
+    @Label("FXML")
+    String fxml;
+
+    @Label("Controller")
+    Class<?> controller;
+
+    @Label("Node Count")
+    @Description("Nodes in the loaded scene graph")
+    int nodeCount;
+
+    @Label("Prewarmed")
+    @Description("Loaded on the background prewarm thread")
+    boolean prewarmed;
+}
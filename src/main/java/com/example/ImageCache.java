@@ -0,0 +1,207 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Decoded menu images, shared by every visit to the menu screen.
+ * Entries are keyed by menu item id and image hash, so a replaced image is never
+ * served stale. The cache is bounded by decoded size (width x height x 4 bytes) and
+ * evicts least recently used images; values are soft references, so the garbage
+ * collector can also drop them under memory pressure. Misses are read and decoded
+ * on background threads and handed to the caller on the FX thread.
+ */
+public class ImageCache {
+    // Decoded bytes kept for menu thumbnails (a 300 px thumbnail is about 270 KB)
+    private static final long MENU_MAX_BYTES = 64L * 1024 * 1024;
+    private static final ImageCache MENU = new ImageCache(MENU_MAX_BYTES);
+
+    // Decoding is CPU bound, so a couple of threads is enough
+    private static final AtomicInteger DECODER_THREADS = new AtomicInteger();
+    private static final ExecutorService DECODER = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "image-decoder-" + DECODER_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record Key(int itemId, String hash, boolean large) {
+    }
+
+    private static final class Entry extends SoftReference<Image> {
+        private final Key key;
+        private final long bytes;
+
+        private Entry(Key key, Image image, ReferenceQueue<Image> queue) {
+            super(image, queue);
+            this.key = key;
+            this.bytes = (long) image.getWidth() * (long) image.getHeight() * 4;
+        }
+    }
+
+    private final long maxBytes;
+    private final ReferenceQueue<Image> collected = new ReferenceQueue<>();
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true); // guarded by this
+    private final Map<Key, CompletableFuture<Image>> decoding = new HashMap<>(); // guarded by this
+    private long currentBytes; // guarded by this
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long collections;
+
+    public ImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Cache for the customer menu grid
+    public static ImageCache menu() {
+        return MENU;
+    }
+
+    /**
+     * Show the item's thumbnail. On a hit onLoaded runs immediately; on a miss the
+     * bytes are read and decoded in the background and onLoaded runs on the FX thread
+     * once the image is ready. Nothing is called for items without an image.
+     * @return true if the image was already decoded
+     */
+    public boolean load(MenuItem item, boolean large, Consumer<Image> onLoaded) {
+        if (!item.hasImage()) {
+            return false;
+        }
+        Key key = new Key(item.getId(), item.getImageHash(), large);
+
+        Image cached;
+        CompletableFuture<Image> pending = null;
+        synchronized (this) {
+            purgeCollected();
+            Entry entry = entries.get(key);
+            cached = entry != null ? entry.get() : null;
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+                pending = startDecode(key, item, large);
+            }
+        }
+
+        if (cached != null) {
+            onLoaded.accept(cached);
+            return true;
+        }
+        pending.thenAccept(image -> {
+            if (image != null) {
+                Platform.runLater(() -> onLoaded.accept(image));
+            }
+        });
+        return false;
+    }
+
+    // Called with the lock held
+    private CompletableFuture<Image> startDecode(Key key, MenuItem item, boolean large) {
+        // Several cards asking for the same image share one decode
+        CompletableFuture<Image> pending = decoding.get(key);
+        if (pending == null) {
+            pending = CompletableFuture.supplyAsync(() -> decode(item, large), DECODER);
+            decoding.put(key, pending);
+            pending.whenComplete((decoded, error) -> finishDecode(key, decoded));
+        }
+        return pending;
+    }
+
+    // Runs on a decoder thread
+    private static Image decode(MenuItem item, boolean large) {
+        byte[] data = item.getThumbnailData(large);
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        ImageDecodeEvent event = new ImageDecodeEvent();
+        event.begin();
+        Image image = new Image(new ByteArrayInputStream(data));
+        event.end();
+        if (event.shouldCommit()) {
+            event.image = item.getName();
+            event.itemId = item.getId();
+            event.large = large;
+            event.encodedBytes = data.length;
+            event.width = (int) image.getWidth();
+            event.height = (int) image.getHeight();
+            event.commit();
+        }
+        return image.isError() ? null : image;
+    }
+
+    private synchronized void finishDecode(Key key, Image image) {
+        decoding.remove(key);
+        if (image == null) {
+            return;
+        }
+        Entry entry = new Entry(key, image, collected);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            currentBytes -= previous.bytes;
+        }
+        currentBytes += entry.bytes;
+        evictOverflow();
+    }
+
+    // Drop least recently used images until the cache fits its budget again
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            currentBytes -= entry.bytes;
+            evictions++;
+        }
+    }
+
+    // Forget entries whose image the garbage collector has reclaimed
+    private void purgeCollected() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            if (entries.get(entry.key) == entry) {
+                entries.remove(entry.key);
+                currentBytes -= entry.bytes;
+                collections++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized String getStats() {
+        purgeCollected();
+        long lookups = hits + misses;
+        return String.format("%d images, %.1f/%d MB, %d hits, %d misses (%.0f%% hits), %d evicted, %d collected",
+                entries.size(), currentBytes / (1024.0 * 1024), maxBytes / (1024 * 1024), hits, misses,
+                lookups == 0 ? 0.0 : hits * 100.0 / lookups, evictions, collections);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one image decode for the menu screen. Reading the image bytes from the
+ * database is recorded separately as a database operation.
+ */
+@Name("com.example.ImageDecode")
+@Label("Image Decode")
+@Category({ "Restaurant", "JavaFX" })
+@Description("Decode of a menu item thumbnail or a bundled image")
+final class ImageDecodeEvent extends jdk.jfr.Event {
+
+    @Label("Image")
+    @Description("Menu item name, or the resource path of a bundled image")
+    String image;
+
+    @Label("Menu Item Id")
+    int itemId;
+
+    @Label("Large Thumbnail")
+    boolean large;
+
+    @Label("Encoded Size")
+    @DataAmount
+    long encodedBytes;
+
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+}
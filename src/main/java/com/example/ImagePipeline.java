@@ -0,0 +1,168 @@
+package com.example;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upload-time processing of menu images: a 150 px thumbnail for the menu grid, a
+ * 300 px one for high-density screens, and the original capped at MAX_ORIGINAL px.
+ * Runs with ImageIO so it works off the FX thread and without a running toolkit.
+ * Files ImageIO cannot decode are stored as uploaded, without thumbnails.
+ */
+public class ImagePipeline {
+    public static final int THUMBNAIL_SIZE = 150;
+    public static final int LARGE_THUMBNAIL_SIZE = 300;
+    // Longest side of the stored original; larger uploads are scaled down
+    public static final int MAX_ORIGINAL = 1600;
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    /**
+     * The images stored for one upload. Thumbnails are null when the upload could
+     * not be decoded.
+     */
+    public record ProcessedImage(byte[] original, byte[] thumbnail, byte[] largeThumbnail) {
+    }
+
+    /**
+     * Produce the stored original and both thumbnails for uploaded image bytes.
+     * @return null when there is no image
+     */
+    public static ProcessedImage process(byte[] upload) {
+        if (upload == null || upload.length == 0) {
+            return null;
+        }
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(upload));
+            if (source == null) {
+                System.err.println("Unsupported image format; storing it without thumbnails");
+                return new ProcessedImage(upload, null, null);
+            }
+
+            byte[] original = Math.max(source.getWidth(), source.getHeight()) > MAX_ORIGINAL
+                    ? encode(scaleToFit(source, MAX_ORIGINAL))
+                    : upload;
+            return new ProcessedImage(original,
+                    encode(scaleToFit(source, THUMBNAIL_SIZE)),
+                    encode(scaleToFit(source, LARGE_THUMBNAIL_SIZE)));
+        } catch (IOException e) {
+            System.err.println("Error processing image: " + e.getMessage());
+            return new ProcessedImage(upload, null, null);
+        }
+    }
+
+    static final String MISSING_THUMBNAILS =
+            "SELECT id, image_hash FROM menu_items WHERE image_hash IS NOT NULL AND thumbnail_hash IS NULL";
+
+    /**
+     * Create thumbnails for menu items that have an image but none yet (images
+     * uploaded before the pipeline existed). Call with the writer connection.
+     * @return number of menu items updated
+     */
+    static int backfill(Connection connection) throws SQLException {
+        String update = "UPDATE menu_items SET image_hash = ?, thumbnail_hash = ?, thumbnail_large_hash = ? WHERE id = ?";
+
+        record Pending(int id, String imageHash) {
+        }
+        List<Pending> pending = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(MISSING_THUMBNAILS);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                pending.add(new Pending(rs.getInt("id"), rs.getString("image_hash")));
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        return DatabaseManager.inTransaction(connection, conn -> {
+            int updated = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+                for (Pending item : pending) {
+                    ProcessedImage processed = process(ImageStore.load(item.imageHash()));
+                    if (processed == null || processed.thumbnail() == null) {
+                        continue;
+                    }
+                    pstmt.setString(1, ImageStore.put(conn, processed.original()));
+                    pstmt.setString(2, ImageStore.put(conn, processed.thumbnail()));
+                    pstmt.setString(3, ImageStore.put(conn, processed.largeThumbnail()));
+                    pstmt.setInt(4, item.id());
+                    pstmt.executeUpdate();
+                    updated++;
+                }
+            }
+            // Originals that were scaled down are no longer referenced
+            ImageStore.deleteUnreferenced(conn);
+            return updated;
+        });
+    }
+
+    // Scale so the longest side is at most size, keeping the aspect ratio
+    private static BufferedImage scaleToFit(BufferedImage source, int size) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        // Halve in steps first: a single bilinear pass over a large factor looks jagged
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2, type);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight || current.getType() != type) {
+            current = draw(current, targetWidth, targetHeight, type);
+        }
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // JPEG for opaque images, PNG when transparency has to be kept
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (image.getColorModel().hasAlpha()) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed store for menu images, kept in the images table.
+ * Each image is stored once under the SHA-256 hash of its bytes and menu_items only
+ * holds that hash (and the hashes of its thumbnails, see ImagePipeline), so listing
+ * the menu never reads image data. Bytes are fetched one image at a time with load()
+ * when a screen actually shows the picture.
+ */
+public class ImageStore {
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS images (" +
+            "hash TEXT PRIMARY KEY, " +
+            "data BLOB NOT NULL, " +
+            "byte_size INTEGER NOT NULL" +
+            ")";
+
+    /**
+     * Store image bytes if they are not stored yet.
+     * @return the hash to keep in menu_items.image_hash, or null for no image
+     */
+    public static String put(Connection connection, byte[] data) throws SQLException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        String hash = hashOf(data);
+        String query = "INSERT OR IGNORE INTO images (hash, data, byte_size) VALUES (?, ?, ?)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+            pstmt.setString(1, hash);
+            pstmt.setBytes(2, data);
+            pstmt.setInt(3, data.length);
+            pstmt.executeUpdate();
+        }
+        return hash;
+    }
+
+    static final String LOAD_IMAGE = "SELECT data FROM images WHERE hash = ?";
+
+    /**
+     * Bytes of a stored image, or null if the hash is null or unknown.
+     */
+    public static byte[] load(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+                PreparedStatement pstmt = lease.connection().prepareStatement(LOAD_IMAGE)) {
+            pstmt.setString(1, hash);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getBytes("data") : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading image " + hash + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    static final String DELETE_UNREFERENCED = "DELETE FROM images WHERE hash NOT IN (" +
+            "SELECT image_hash FROM menu_items WHERE image_hash IS NOT NULL " +
+            "UNION SELECT thumbnail_hash FROM menu_items WHERE thumbnail_hash IS NOT NULL " +
+            "UNION SELECT thumbnail_large_hash FROM menu_items WHERE thumbnail_large_hash IS NOT NULL)";
+
+    /**
+     * Remove images no menu item refers to any more. Call after replacing or deleting
+     * a menu item's image, inside the same transaction.
+     * @return number of images removed
+     */
+    public static int deleteUnreferenced(Connection connection) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(DELETE_UNREFERENCED)) {
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Move images stored inline in menu_items.image_data (older databases) into the
+     * store, leaving only the hash in the row.
+     * @return number of menu items migrated
+     */
+    static int migrateInlineImages(Connection connection) throws SQLException {
+        String select = "SELECT id, image_data FROM menu_items WHERE image_data IS NOT NULL";
+        String update = "UPDATE menu_items SET image_hash = ?, image_data = NULL WHERE id = ?";
+
+        return DatabaseManager.inTransaction(connection, conn -> {
+            int migrated = 0;
+            try (PreparedStatement selectStmt = conn.prepareStatement(select);
+                    ResultSet rs = selectStmt.executeQuery();
+                    PreparedStatement updateStmt = conn.prepareStatement(update)) {
+                while (rs.next()) {
+                    updateStmt.setString(1, put(conn, rs.getBytes("image_data")));
+                    updateStmt.setInt(2, rs.getInt("id"));
+                    updateStmt.addBatch();
+                    migrated++;
+                }
+                updateStmt.executeBatch();
+            }
+            return migrated;
+        });
+    }
+
+    static String hashOf(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java runtime is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
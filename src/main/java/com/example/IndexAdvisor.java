@@ -0,0 +1,165 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index advisor: runs EXPLAIN QUERY PLAN over the statements the application issues
+ * and reports the ones that still read a whole table. Temporary sorts are listed as
+ * warnings. Run it like ShowDatabaseData; it exits with status 1 when an unexpected
+ * full scan is found.
+ * The statements are the constants and query builders the call sites themselves use, so
+ * the plans checked are those of the SQL the application runs. When you add a query,
+ * give it a constant (or a builder for dynamic SQL) and list it here.
+ */
+public class IndexAdvisor {
+
+    // A statement to check; fullScanExpected marks queries that read the whole table by design
+    record CheckedQuery(String name, String sql, boolean fullScanExpected) {
+    }
+
+    // Page statements depend only on whether there is an anchor, not on its values
+    private static final Object ANCHOR = new Object();
+    private static final LocalDate TODAY = LocalDate.now();
+
+    static final List<CheckedQuery> QUERIES = List.of(
+            // DatabaseManager - menu
+            new CheckedQuery("getAllMenuItems", DatabaseManager.ALL_MENU_ITEMS, true),
+            new CheckedQuery("updateMenuItem", DatabaseManager.UPDATE_MENU_ITEM, false),
+            new CheckedQuery("updateMenuItemDetails", DatabaseManager.UPDATE_MENU_ITEM_DETAILS, false),
+            new CheckedQuery("deleteMenuItem", DatabaseManager.DELETE_MENU_ITEM, false),
+            new CheckedQuery("toggleMenuItemAvailability", DatabaseManager.TOGGLE_MENU_ITEM_AVAILABILITY, false),
+
+            // ImageStore and ImagePipeline (the thumbnail backfill and deleteUnreferenced read the
+            // handful of menu rows by design)
+            new CheckedQuery("loadImage", ImageStore.LOAD_IMAGE, false),
+            new CheckedQuery("deleteUnreferenced", ImageStore.DELETE_UNREFERENCED, true),
+            new CheckedQuery("thumbnailBackfill", ImagePipeline.MISSING_THUMBNAILS, true),
+
+            // DatabaseManager - tables and reservations (tables holds a handful of rows)
+            new CheckedQuery("getAvailableTables", DatabaseManager.AVAILABLE_TABLES, true),
+            new CheckedQuery("countTables", DatabaseManager.COUNT_TABLES, true),
+            new CheckedQuery("getTableById", DatabaseManager.TABLE_BY_ID, false),
+            new CheckedQuery("reserveTable", DatabaseManager.RESERVE_TABLE, false),
+            new CheckedQuery("releaseTable", DatabaseManager.RELEASE_TABLE, false),
+            new CheckedQuery("getClientTableNumber", DatabaseManager.CLIENT_TABLE_NUMBER, false),
+            new CheckedQuery("getClientReservation", DatabaseManager.CLIENT_RESERVATION, false),
+            new CheckedQuery("cancelClientReservation", DatabaseManager.CANCEL_CLIENT_RESERVATION, false),
+            new CheckedQuery("getAllReservations", DatabaseManager.ALL_RESERVATIONS, true),
+
+            // DatabaseManager - clients and admins
+            new CheckedQuery("clientExists", DatabaseManager.CLIENT_EXISTS, false),
+            new CheckedQuery("isNumberExists", DatabaseManager.NUMBER_EXISTS, false),
+            new CheckedQuery("verifyAdmin", DatabaseManager.VERIFY_ADMIN, false),
+            new CheckedQuery("clearClientsTable", DatabaseManager.CLEAR_CLIENTS, true),
+
+            // DatabaseManager - orders
+            new CheckedQuery("getNextOrderId", SequenceAllocator.RESERVE_BLOCK, false),
+            new CheckedQuery("getNextOrderId (value)", SequenceAllocator.SEQUENCE_VALUE, false),
+            new CheckedQuery("seedOrderIdSequence", DatabaseManager.MAX_ORDER_ID, false),
+            new CheckedQuery("getClientOrders", DatabaseManager.CLIENT_ORDERS, false),
+            new CheckedQuery("getAllOrders", DatabaseManager.ALL_ORDERS, true),
+            new CheckedQuery("getOrderSummaries", DatabaseManager.ORDER_SUMMARY_LINES, true),
+            // Keyset pages seek from the anchor row; the first page walks the index until LIMIT
+            new CheckedQuery("getOrderSummaryPage (first)",
+                    DatabaseManager.orderSummaryPageQuery(page("order_id", true, null, false)), true),
+            new CheckedQuery("getOrderSummaryPage",
+                    DatabaseManager.orderSummaryPageQuery(page("order_id", true, null, true)), false),
+            new CheckedQuery("getOrderSummaryPage (status)",
+                    DatabaseManager.orderSummaryPageQuery(page("order_id", false, Order.STATUS_PENDING, true)), false),
+            new CheckedQuery("getOrdersByOrderId", DatabaseManager.ORDERS_BY_ORDER_ID, false),
+            new CheckedQuery("updateOrderStatus", DatabaseManager.UPDATE_ORDER_STATUS, false),
+
+            // OrderService
+            new CheckedQuery("recoverKitchenQueue", OrderService.PENDING_ORDER_LINES, false),
+
+            // SalesRollup
+            new CheckedQuery("applyStatusChange", SalesRollup.ORDER_LINES_WITH_DAY, false),
+            new CheckedQuery("recordOrderLines", SalesRollup.UPSERT, false),
+
+            // SalesReport (reports screen and /api/reports) / AdminClientsController
+            new CheckedQuery("getTotalClients", SalesReport.TOTAL_CLIENTS, true),
+            new CheckedQuery("getTotalOrders", SalesReport.totalOrdersQuery(TODAY, TODAY), false),
+            new CheckedQuery("getTotalRevenue", SalesReport.totalRevenueQuery(TODAY, TODAY), false),
+            new CheckedQuery("getMostOrderedItem", SalesReport.mostOrderedItemQuery(TODAY, TODAY), false),
+            new CheckedQuery("loadClientPage (first)",
+                    AdminClientsController.clientPageQuery(page("id", true, null, false)), true),
+            new CheckedQuery("loadClientPage",
+                    AdminClientsController.clientPageQuery(page("id", true, null, true)), false),
+            new CheckedQuery("loadClientPage (name)",
+                    AdminClientsController.clientPageQuery(page("name", true, "x", true)), false),
+            new CheckedQuery("loadClientPage (number)",
+                    AdminClientsController.clientPageQuery(page("number", false, null, true)), false));
+
+    // A forward page request of the given shape
+    private static PageRequest<Object> page(String sortColumn, boolean ascending, String filter, boolean anchored) {
+        return new PageRequest<>(sortColumn, ascending, filter, anchored ? ANCHOR : null, true, 50);
+    }
+
+    public static void main(String[] args) {
+        DatabaseManager.initialize();
+
+        System.out.println("========================================");
+        System.out.println("        INDEX ADVISOR");
+        System.out.println("========================================\n");
+
+        int problems = 0;
+        try (ConnectionPool.Lease lease = DatabaseManager.reader()) {
+            for (CheckedQuery query : QUERIES) {
+                List<String> plan = explain(lease.connection(), query.sql());
+                String verdict = verdict(plan, query.fullScanExpected());
+                if (verdict.startsWith("FULL SCAN")) {
+                    problems++;
+                }
+
+                System.out.printf("%-28s | %s%n", query.name(), verdict);
+                for (String step : plan) {
+                    System.out.printf("%-28s |    %s%n", "", step);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error running index advisor: " + e.getMessage());
+            e.printStackTrace();
+            problems++;
+        }
+
+        System.out.println("\nIndex version: " + IndexManager.latestVersion());
+        System.out.println(problems == 0 ? "No unexpected full table scans" : problems + " statement(s) need an index");
+
+        DatabaseManager.close();
+        System.exit(problems == 0 ? 0 : 1);
+    }
+
+    // Detail lines of EXPLAIN QUERY PLAN for the statement (unbound parameters plan as NULL)
+    static List<String> explain(Connection connection, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+                ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    static String verdict(List<String> plan, boolean fullScanExpected) {
+        for (String step : plan) {
+            // "SCAN t" reads every row; "SCAN t USING INDEX" still visits every index entry
+            if (step.startsWith("SCAN ") && !fullScanExpected) {
+                return "FULL SCAN";
+            }
+        }
+        for (String step : plan) {
+            // Sorting the rows of an indexed range is fine, but worth seeing
+            if (step.contains("USE TEMP B-TREE") && !fullScanExpected) {
+                return "OK (warning: temp sort)";
+            }
+        }
+        return fullScanExpected ? "OK (full read expected)" : "OK";
+    }
+}
@@ -0,0 +1,92 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Versioned secondary indexes for restaurant.db.
+ * The applied version is stored in PRAGMA user_version; on startup every index with a
+ * higher version is created and the version is bumped. To add an index, append it
+ * with the next version number - never change or reuse an existing entry.
+ */
+public class IndexManager {
+
+    // One secondary index and the schema version that introduced it
+    public record IndexDefinition(int version, String name, String table, String columns) {
+        String createSql() {
+            return "CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " (" + columns + ")";
+        }
+    }
+
+    public static final List<IndexDefinition> INDEXES = List.of(
+            // getOrdersByOrderId, updateOrderStatus, getNextOrderId (MAX), getOrderSummaries (ORDER BY),
+            // getOrderSummaryPage (keyset seek)
+            new IndexDefinition(1, "idx_orders_order_id", "orders", "order_id"),
+            // getClientOrders: equality on client, ordered by date
+            new IndexDefinition(1, "idx_orders_client", "orders", "client_name, client_number, order_date"),
+            // getAllOrders ordering
+            new IndexDefinition(1, "idx_orders_order_date", "orders", "order_date"),
+            // isNumberExists, run on every client login
+            new IndexDefinition(1, "idx_client_number", "client", "number"),
+            // Report date ranges on order_day; also covers the columns the report queries read
+            new IndexDefinition(2, "idx_orders_day_item", "orders", "order_day, item_name, quantity, price"),
+            // Admin orders table filtered by status, paged by order_id
+            new IndexDefinition(3, "idx_orders_status", "orders", "status, order_id"),
+            // Admin clients table sorted by name (the rowid breaks ties)
+            new IndexDefinition(3, "idx_client_name", "client", "name"));
+
+    // Highest version in INDEXES
+    public static int latestVersion() {
+        int latest = 0;
+        for (IndexDefinition index : INDEXES) {
+            latest = Math.max(latest, index.version());
+        }
+        return latest;
+    }
+
+    /**
+     * Create every index newer than the database's user_version.
+     * Must run on the writer connection after the tables exist.
+     */
+    public static void apply(Connection connection) throws SQLException {
+        int current = getVersion(connection);
+        int latest = latestVersion();
+        if (current >= latest) {
+            return;
+        }
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (IndexDefinition index : INDEXES) {
+                if (index.version() > current) {
+                    stmt.execute(index.createSql());
+                    System.out.println("Created index " + index.name() + " on " + index.table());
+                }
+            }
+            stmt.execute("PRAGMA user_version = " + latest);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        // Refresh planner statistics so the new indexes are actually chosen
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ANALYZE");
+        }
+        System.out.println("Index version upgraded from " + current + " to " + latest);
+    }
+
+    public static int getVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram for the soak test and the metrics registry.
+ * Values (microseconds) are counted in log-linear buckets: each power of two is split
+ * into SUB_BUCKETS, so a reported percentile is within about 3% of the true value.
+ * Any number of threads may record while another takes snapshots; recording never
+ * allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS get exact buckets; 64 - SUB_BUCKET_BITS powers of two above that
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS + 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+    }
+
+    // Copy of the counts so far
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, sum.sum());
+    }
+
+    // Copy of the counts since the last call, resetting them (for per-interval reports)
+    public Snapshot snapshotAndReset() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.getAndSet(i, 0);
+        }
+        return new Snapshot(copy, sum.sumThenReset());
+    }
+
+    /**
+     * Counts at one moment, with percentile lookups.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+        private final long sum;
+
+        private Snapshot(long[] counts, long sum) {
+            this.counts = counts;
+            this.sum = sum;
+            long count = 0;
+            for (long bucket : counts) {
+                count += bucket;
+            }
+            this.total = count;
+        }
+
+        public long getCount() {
+            return total;
+        }
+
+        // Sum of the recorded values
+        public long getSum() {
+            return sum;
+        }
+
+        // Number of values up to the given one (values in the same bucket count as below it)
+        public long countAtOrBelow(long value) {
+            int last = bucketOf(Math.max(0, value));
+            long seen = 0;
+            for (int i = 0; i <= last; i++) {
+                seen += counts[i];
+            }
+            return seen;
+        }
+
+        /**
+         * Value at the given percentile (0-100), as the upper end of its bucket.
+         * @return 0 when nothing was recorded
+         */
+        public long percentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return upperBoundOf(i);
+                }
+            }
+            return 0;
+        }
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Power of two of the value, and its next SUB_BUCKET_BITS bits below the leading one
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS * (shift + 1) + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
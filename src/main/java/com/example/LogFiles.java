@@ -0,0 +1,43 @@
+package com.example;
+
+import java.io.IOException;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Rotating plain-text logs for diagnostics (slow queries, FX thread stalls).
+ * Each message is written as is, one entry after another, and the file rotates at 1 MB
+ * with 5 files kept: "slow-queries.log" becomes slow-queries.0.log, slow-queries.1.log...
+ */
+public class LogFiles {
+    private static final int LOG_FILE_BYTES = 1024 * 1024;
+    private static final int LOG_FILES = 5;
+
+    /**
+     * Open a log writing to file under the given logger name.
+     * @return the logger, or null if the file cannot be opened (the error is printed)
+     */
+    public static Logger open(String file, String loggerName) {
+        try {
+            String pattern = file.endsWith(".log") ? file.substring(0, file.length() - 4) + ".%g.log" : file + ".%g";
+            FileHandler handler = new FileHandler(pattern, LOG_FILE_BYTES, LOG_FILES, true);
+            handler.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord record) {
+                    return record.getMessage() + System.lineSeparator();
+                }
+            });
+            Logger logger = Logger.getLogger(loggerName);
+            logger.setUseParentHandlers(false);
+            logger.setLevel(Level.INFO);
+            logger.addHandler(handler);
+            return logger;
+        } catch (IOException e) {
+            System.err.println("Error opening " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import java.io.IOException;
 
-public class MainController {
+public class MainController implements ScreenController {
 
     @FXML
     private Button clientOptionBtn;
@@ -35,6 +35,24 @@ public class MainController {
     @FXML
     private Label statusLabel;
 
+    // The login screen is cached: never leave a name or password behind for the next person
+    @Override
+    public void onHide() {
+        clientNameField.clear();
+        clientNumberField.clear();
+        adminIdField.clear();
+        adminPasswordField.clear();
+        clientSection.setVisible(false);
+        clientSection.setManaged(false);
+        adminSection.setVisible(false);
+        adminSection.setManaged(false);
+        clientOptionBtn.setVisible(true);
+        clientOptionBtn.setManaged(true);
+        adminOptionBtn.setVisible(true);
+        adminOptionBtn.setManaged(true);
+        statusLabel.setText("");
+    }
+
     @FXML
     private void toggleClientSection() {
         boolean isVisible = clientSection.isVisible();
@@ -1,12 +1,14 @@
 package com.example;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
-import javafx.scene.layout.FlowPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.Node;
-import javafx.event.ActionEvent;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.control.Alert;
@@ -14,90 +16,184 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.geometry.Pos;
+import javafx.stage.Screen;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ByteArrayInputStream;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.List;
 
-public class MenuController {
+public class MenuController implements ScreenController {
+
+    // Placeholder shown while a thumbnail decodes, decoded once (FX thread only)
+    private static final String DEFAULT_IMAGE = "images/default-food.png";
+    private static Image defaultImage;
+
+    private static final String ALL_CATEGORIES = "All categories";
+    // Items saved without a category are listed under this name
+    private static final String NO_CATEGORY = "Other";
+    private static final double CARD_WIDTH = 200;
+    private static final double CARD_GAP = 20;
 
     @FXML
-    private FlowPane menuContainer;
+    private StackPane menuContainer;
+
+    @FXML
+    private TextField searchField;
+
+    @FXML
+    private ComboBox<String> categoryBox;
 
     @FXML
     private Label statusLabel;
 
+    @FXML
+    private Label cartLabel;
+
+    @FXML
+    private Button placeOrderButton;
+
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+    // 300 px thumbnails keep the 150 px cards sharp on high-density screens (read on the FX thread in onShow)
+    private boolean largeThumbnails;
+    private final VirtualGrid<MenuItem> menuGrid = new VirtualGrid<>(MenuCard::new, CARD_WIDTH, CARD_GAP);
+
     @FXML
     public void initialize() {
-        statusLabel.setText("Browse our menu and add items to your order");
+        // Drop queries still running when the client leaves the menu
+        requests.cancelWhenRemoved(statusLabel);
+        menuGrid.setPlaceholder(new Label("Loading menu..."));
+        menuContainer.getChildren().add(menuGrid);
+
+        // Filtering only changes which items the grid shows; no cards are rebuilt
+        searchField.textProperty().addListener((obs, oldText, newText) -> applyFilter());
+        categoryBox.valueProperty().addListener((obs, oldValue, newValue) -> applyFilter());
+    }
+
+    // Every visit starts from the whole menu, with prices and availability reloaded
+    @Override
+    public void onShow() {
+        largeThumbnails = Screen.getPrimary().getOutputScaleX() > 1;
+        searchField.clear();
         loadMenuFromDatabase();
+        updateCartLabel();
     }
 
     private void loadMenuFromDatabase() {
-        menuContainer.getChildren().clear();
-        List<MenuItem> menuItems = DatabaseManager.getAllMenuItems();
+        statusLabel.setText("Loading menu...");
 
-        for (MenuItem item : menuItems) {
-            if (item.isAvailable()) {
-                VBox card = createMenuCard(item);
-                menuContainer.getChildren().add(card);
-            }
-        }
+        requests.submit("menu", DatabaseManager::getAllMenuItems, menuItems -> {
+            List<MenuItem> available = menuItems.stream().filter(MenuItem::isAvailable).toList();
+            menuGrid.setSource(available);
+            menuGrid.setPlaceholder(new Label("No dishes match your search"));
+
+            categoryBox.getItems().setAll(ALL_CATEGORIES);
+            available.stream().map(MenuController::categoryOf).distinct().sorted()
+                    .forEach(categoryBox.getItems()::add);
+            categoryBox.setValue(ALL_CATEGORIES);
+            statusLabel.setText("Browse our menu and add items to your order");
+            statusLabel.setStyle("");
+        }, e -> {
+            statusLabel.setText("Could not load the menu. Please try again.");
+            statusLabel.setStyle("-fx-text-fill: #dc3545;");
+        });
     }
 
-    private VBox createMenuCard(MenuItem item) {
-        VBox card = new VBox(10);
-        card.setAlignment(Pos.CENTER);
-        card.setStyle("-fx-background-color: white; -fx-padding: 15; -fx-border-color: #ddd; " +
-                "-fx-border-radius: 8; -fx-background-radius: 8; -fx-effect: dropshadow(gaussian, rgba(0,0,0,0.1), 5, 0, 0, 2);");
-        card.setPrefWidth(200);
-        card.setPrefHeight(250);
-
-        // Add image
-        ImageView imageView = new ImageView();
-        imageView.setFitWidth(150);
-        imageView.setFitHeight(150);
-        imageView.setPreserveRatio(true);
-
-        if (item.getImageData() != null && item.getImageData().length > 0) {
-            try {
-                ByteArrayInputStream bis = new ByteArrayInputStream(item.getImageData());
-                Image image = new Image(bis);
-                imageView.setImage(image);
-            } catch (Exception e) {
-                setDefaultImage(imageView);
-            }
-        } else {
-            setDefaultImage(imageView);
-        }
+    private void applyFilter() {
+        String search = searchField.getText() == null ? "" : searchField.getText().trim().toLowerCase(Locale.ROOT);
+        String category = categoryBox.getValue();
+        boolean anyCategory = category == null || ALL_CATEGORIES.equals(category);
 
-        // Add item name
-        Label nameLabel = new Label(item.getName());
-        nameLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+        menuGrid.setFilter(item -> (anyCategory || category.equals(categoryOf(item)))
+                && (search.isEmpty() || item.getName().toLowerCase(Locale.ROOT).contains(search)));
+    }
 
-        // Add price
-        Label priceLabel = new Label(String.format("$%.2f", item.getPrice()));
-        priceLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #27ae60;");
+    private static String categoryOf(MenuItem item) {
+        return item.getCategory() != null ? item.getCategory() : NO_CATEGORY;
+    }
+
+    /**
+     * One card of the menu grid. Cards are recycled while scrolling, so show() only
+     * swaps texts and the image of the nodes created once in the constructor.
+     */
+    private final class MenuCard implements VirtualGrid.Card<MenuItem> {
+        private final VBox card = new VBox(10);
+        private final ImageView imageView = new ImageView();
+        private final Label nameLabel = new Label();
+        private final Label priceLabel = new Label();
+        private MenuItem item;
+
+        private MenuCard() {
+            card.setAlignment(Pos.CENTER);
+            card.getStyleClass().add("menu-grid-card");
+            card.setPrefWidth(CARD_WIDTH);
+            card.setMinWidth(CARD_WIDTH);
+            card.setPrefHeight(250);
+
+            imageView.setFitWidth(150);
+            imageView.setFitHeight(150);
+            imageView.setPreserveRatio(true);
+            nameLabel.getStyleClass().add("menu-grid-name");
+            priceLabel.getStyleClass().add("menu-grid-price");
 
-        // Add button
-        Button addButton = new Button("Add to Order");
-        addButton.setStyle("-fx-background-color: #3498db; -fx-text-fill: white; -fx-padding: 8 20;");
-        addButton.setOnAction(e -> showQuantityDialog(item.getName(), item.getPrice()));
+            Button addButton = new Button("Add to Order");
+            addButton.getStyleClass().add("menu-grid-add");
+            addButton.setOnAction(e -> showQuantityDialog(item.getName(), item.getPrice()));
+
+            card.getChildren().addAll(imageView, nameLabel, priceLabel, addButton);
+        }
+
+        @Override
+        public Node getNode() {
+            return card;
+        }
 
-        card.getChildren().addAll(imageView, nameLabel, priceLabel, addButton);
-        return card;
+        @Override
+        public void show(MenuItem newItem) {
+            if (newItem == item) {
+                return;
+            }
+            item = newItem;
+            nameLabel.setText(newItem.getName());
+            priceLabel.setText(String.format("$%.2f", newItem.getPrice()));
+
+            // Placeholder until the thumbnail is decoded; the grid never decodes full-size uploads.
+            // Decoded thumbnails are kept in the shared cache, so revisiting the menu decodes nothing.
+            boolean cached = ImageCache.menu().load(newItem, largeThumbnails, image -> {
+                // The card may have been recycled for another item while this one decoded
+                if (item == newItem) {
+                    imageView.setImage(image);
+                }
+            });
+            if (!cached) {
+                setDefaultImage(imageView);
+            }
+        }
     }
 
     private void setDefaultImage(ImageView imageView) {
-        try {
-            InputStream defaultStream = getClass().getResourceAsStream("images/default-food.png");
-            if (defaultStream != null) {
-                imageView.setImage(new Image(defaultStream));
+        if (defaultImage == null) {
+            try (InputStream defaultStream = getClass().getResourceAsStream(DEFAULT_IMAGE)) {
+                if (defaultStream != null) {
+                    byte[] data = defaultStream.readAllBytes();
+                    ImageDecodeEvent event = new ImageDecodeEvent();
+                    event.begin();
+                    defaultImage = new Image(new ByteArrayInputStream(data));
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.image = DEFAULT_IMAGE;
+                        event.encodedBytes = data.length;
+                        event.width = (int) defaultImage.getWidth();
+                        event.height = (int) defaultImage.getHeight();
+                        event.commit();
+                    }
+                }
+            } catch (Exception e) {
+                // No default image available
             }
-        } catch (Exception e) {
-            // No default image available
         }
+        imageView.setImage(defaultImage);
     }
 
     private void showQuantityDialog(String itemName, double price) {
@@ -115,36 +211,12 @@ public class MenuController {
                     return;
                 }
 
-                // Get current client info
-                String clientName = App.getCurrentClientName();
-                String clientNumber = App.getCurrentClientNumber();
-
-                if (clientName == null || clientNumber == null) {
-                    showAlert("Error", "Client information not found. Please log in again.", AlertType.ERROR);
-                    return;
-                }
-
-                // Add order to database
-                boolean success = DatabaseManager.addOrder(
-                        clientName,
-                        clientNumber,
-                        itemName,
-                        quantity,
-                        price,
-                        Order.getCurrentTimestamp());
-
-                if (success) {
-                    double totalPrice = quantity * price;
-                    statusLabel.setText(String.format("Order placed: %d x %s ($%.2f)", quantity, itemName, totalPrice));
-                    statusLabel.setStyle("-fx-text-fill: #27ae60;");
-                    showAlert("Order Confirmed",
-                            String.format("Successfully ordered %d x %s\nTotal: $%.2f", quantity, itemName, totalPrice),
-                            AlertType.INFORMATION);
-                } else {
-                    statusLabel.setText("Failed to place order. Please try again.");
-                    statusLabel.setStyle("-fx-text-fill: #dc3545;");
-                    showAlert("Order Failed", "Could not place your order. Please try again.", AlertType.ERROR);
-                }
+                // Items stay in the cart until the client places the order
+                Cart cart = App.getCart();
+                cart.addItem(itemName, quantity, price);
+                statusLabel.setText(String.format("Added to cart: %d x %s", quantity, itemName));
+                statusLabel.setStyle("-fx-text-fill: #27ae60;");
+                updateCartLabel();
 
             } catch (NumberFormatException e) {
                 showAlert("Invalid Input", "Please enter a valid number.", AlertType.ERROR);
@@ -152,6 +224,72 @@ public class MenuController {
         });
     }
 
+    @FXML
+    private void handlePlaceOrder() {
+        Cart cart = App.getCart();
+        if (cart.isEmpty()) {
+            showAlert("Empty Cart", "Add items from the menu before placing an order.", AlertType.WARNING);
+            return;
+        }
+
+        // Get current client info
+        String clientName = App.getCurrentClientName();
+        String clientNumber = App.getCurrentClientNumber();
+
+        if (clientName == null || clientNumber == null) {
+            showAlert("Error", "Client information not found. Please log in again.", AlertType.ERROR);
+            return;
+        }
+
+        // All cart lines go to the database in one transaction, off the FX thread. The lines
+        // are copies: items added while the order is being placed must not change it
+        List<OrderItem> lines = cart.snapshot();
+        int itemCount = cart.getItemCount();
+        double total = cart.getTotal();
+        placeOrderButton.setDisable(true);
+        statusLabel.setText("Placing order...");
+        statusLabel.setStyle("-fx-text-fill: #6c757d;");
+
+        // Not tied to this screen: the cart must be cleared even if the client navigates away
+        AsyncDatabase.supply(() -> DatabaseManager.placeOrder(clientName, clientNumber, lines))
+                .exceptionally(e -> false)
+                .thenAccept(success -> Platform.runLater(() -> orderPlaced(cart, lines, success, itemCount, total)));
+    }
+
+    private void orderPlaced(Cart cart, List<OrderItem> lines, boolean success, int itemCount, double total) {
+        placeOrderButton.setDisable(false);
+        if (success) {
+            cart.removePlaced(lines);
+            updateCartLabel();
+            statusLabel.setText(String.format("Order placed: %d item(s) ($%.2f)", itemCount, total));
+            statusLabel.setStyle("-fx-text-fill: #27ae60;");
+            showAlert("Order Confirmed",
+                    String.format("Successfully ordered %d item(s)\nTotal: $%.2f", itemCount, total),
+                    AlertType.INFORMATION);
+        } else {
+            showOrderFailed();
+        }
+    }
+
+    private void showOrderFailed() {
+        statusLabel.setText("Failed to place order. Please try again.");
+        statusLabel.setStyle("-fx-text-fill: #dc3545;");
+        showAlert("Order Failed", "Could not place your order. Please try again.", AlertType.ERROR);
+    }
+
+    @FXML
+    private void handleClearCart() {
+        App.getCart().clear();
+        updateCartLabel();
+        statusLabel.setText("Cart cleared");
+        statusLabel.setStyle("-fx-text-fill: #27ae60;");
+    }
+
+    private void updateCartLabel() {
+        Cart cart = App.getCart();
+        cartLabel.setText(String.format("Cart: %d item(s) - $%.2f", cart.getItemCount(), cart.getTotal()));
+    }
+
     private void showAlert(String title, String content, AlertType type) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
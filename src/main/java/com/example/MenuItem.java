@@ -7,22 +7,43 @@ import javafx.beans.property.SimpleStringProperty;
 
 /**
  * Represents a menu item with name, price, and availability status.
+ * Items read from the database carry only the hash of their image; the bytes are
+ * fetched from the ImageStore the first time getImageData() is called.
  */
 public class MenuItem {
     private final SimpleIntegerProperty id;
     private final SimpleStringProperty name;
     private final SimpleDoubleProperty price;
     private final SimpleBooleanProperty available;
-    private byte[] imageData;
+    private final SimpleStringProperty category = new SimpleStringProperty();
+    private final String imageHash;
+    private final int imageSize;
+    private volatile byte[] imageData; // may be loaded from a background thread
+    private String thumbnailHash;
+    private String largeThumbnailHash;
+    private volatile byte[] thumbnailData;
+    private volatile byte[] largeThumbnailData;
 
     public MenuItem(int id, String name, double price, boolean available, byte[] imageData) {
         this.id = new SimpleIntegerProperty(id);
         this.name = new SimpleStringProperty(name);
         this.price = new SimpleDoubleProperty(price);
         this.available = new SimpleBooleanProperty(available);
+        this.imageHash = null;
+        this.imageSize = imageData != null ? imageData.length : 0;
         this.imageData = imageData;
     }
 
+    // For items read from the database: the image is loaded lazily by hash
+    public MenuItem(int id, String name, double price, boolean available, String imageHash, int imageSize) {
+        this.id = new SimpleIntegerProperty(id);
+        this.name = new SimpleStringProperty(name);
+        this.price = new SimpleDoubleProperty(price);
+        this.available = new SimpleBooleanProperty(available);
+        this.imageHash = imageHash;
+        this.imageSize = imageSize;
+    }
+
     // For creating new items (id will be auto-generated)
     public MenuItem(String name, double price, boolean available, byte[] imageData) {
         this(0, name, price, available, imageData);
@@ -45,6 +66,10 @@ public class MenuItem {
         return available;
     }
 
+    public SimpleStringProperty categoryProperty() {
+        return category;
+    }
+
     // Regular getters
     public int getId() {
         return id.get();
@@ -62,10 +87,60 @@ public class MenuItem {
         return available.get();
     }
 
+    // Null when the item has no category
+    public String getCategory() {
+        return category.get();
+    }
+
+    // Reads the image from the database on first use when the item came from there
     public byte[] getImageData() {
+        if (imageData == null && imageHash != null) {
+            imageData = ImageStore.load(imageHash);
+        }
         return imageData;
     }
 
+    /**
+     * Thumbnail bytes for showing the item at about 150 px (large: 300 px, for
+     * high-density screens). Falls back to the full image when no thumbnail exists.
+     */
+    public byte[] getThumbnailData(boolean large) {
+        if (large && largeThumbnailHash != null) {
+            if (largeThumbnailData == null) {
+                largeThumbnailData = ImageStore.load(largeThumbnailHash);
+            }
+            return largeThumbnailData;
+        }
+        if (thumbnailHash == null) {
+            return getImageData();
+        }
+        if (thumbnailData == null) {
+            thumbnailData = ImageStore.load(thumbnailHash);
+        }
+        return thumbnailData;
+    }
+
+    public void setThumbnailHashes(String thumbnailHash, String largeThumbnailHash) {
+        this.thumbnailHash = thumbnailHash;
+        this.largeThumbnailHash = largeThumbnailHash;
+        this.thumbnailData = null;
+        this.largeThumbnailData = null;
+    }
+
+    public boolean hasImage() {
+        return imageHash != null || imageData != null;
+    }
+
+    // Hash of the stored image, null for new items and items without an image
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    // Size of the image in bytes, known without loading it
+    public int getImageSize() {
+        return imageSize;
+    }
+
     // Regular setters
     public void setId(int id) {
         this.id.set(id);
@@ -83,6 +158,10 @@ public class MenuItem {
         this.available.set(available);
     }
 
+    public void setCategory(String category) {
+        this.category.set(category);
+    }
+
     public void setImageData(byte[] imageData) {
         this.imageData = imageData;
     }
@@ -0,0 +1,200 @@
+package com.example;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * In-process metrics: counters, gauges and histograms, tagged with labels such as the
+ * operation name, and written in the Prometheus text format (served by MetricsServer).
+ * A metric is looked up once by name and label values and the returned handle is kept
+ * by the instrumented code, so incrementing a counter or recording a latency never
+ * allocates or touches the registry. Gauges are read from a callback at scrape time and
+ * cost nothing in between. Histograms are LatencyHistograms (microseconds), exported in
+ * seconds against the bucket bounds the metric was registered with.
+ *
+ * Labels are passed as name/value pairs:
+ *   Metrics.counter("restaurant_db_errors_total", "Failed statements", "operation", name)
+ */
+public class Metrics {
+    // Bucket bounds in seconds for database calls and screen work
+    public static final double[] LATENCY_BUCKETS = { 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25,
+            0.5, 1, 2.5, 5, 10 };
+
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        private final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    // A metric name with its series, one per combination of label values
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final String[] bucketBounds; // histograms only, formatted for the le label
+        private final long[] bucketMicros;
+        // Rendered labels (e.g. operation="x") -> Counter, DoubleSupplier or LatencyHistogram
+        private final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type, double[] buckets) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.bucketBounds = new String[buckets.length];
+            this.bucketMicros = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bucketBounds[i] = BigDecimal.valueOf(buckets[i]).stripTrailingZeros().toPlainString();
+                bucketMicros[i] = Math.round(buckets[i] * 1_000_000);
+            }
+        }
+    }
+
+    private static final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * The counter with this name and labels, registered on first use.
+     */
+    public static Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER, new double[0])
+                .series.computeIfAbsent(renderLabels(labels), key -> new Counter());
+    }
+
+    /**
+     * Register a gauge read from value at scrape time; replaces an earlier gauge with the
+     * same name and labels. A NaN value is written as NaN.
+     */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE, new double[0]).series.put(renderLabels(labels), value);
+    }
+
+    /**
+     * The histogram with this name and labels, registered on first use. Record values in
+     * microseconds.
+     * @param buckets upper bounds in seconds, ascending (fixed by the first registration)
+     */
+    public static LatencyHistogram histogram(String name, String help, double[] buckets, String... labels) {
+        return (LatencyHistogram) family(name, help, Type.HISTOGRAM, buckets)
+                .series.computeIfAbsent(renderLabels(labels), key -> new LatencyHistogram());
+    }
+
+    // Every metric in the Prometheus text exposition format (version 0.0.4)
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : new TreeMap<>(families).values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.text).append('\n');
+            for (Map.Entry<String, Object> series : new TreeMap<>(family.series).entrySet()) {
+                writeSeries(out, family, series.getKey(), series.getValue());
+            }
+        }
+        return out.toString();
+    }
+
+    private static void writeSeries(StringBuilder out, Family family, String labels, Object metric) {
+        switch (family.type) {
+            case COUNTER:
+                sample(out, family.name, labels, Long.toString(((Counter) metric).get()));
+                break;
+            case GAUGE:
+                double value;
+                try {
+                    value = ((DoubleSupplier) metric).getAsDouble();
+                } catch (RuntimeException e) {
+                    // A failing gauge must not break the whole scrape
+                    value = Double.NaN;
+                }
+                sample(out, family.name, labels, formatDouble(value));
+                break;
+            case HISTOGRAM:
+                LatencyHistogram.Snapshot snapshot = ((LatencyHistogram) metric).snapshot();
+                String separator = labels.isEmpty() ? "" : labels + ",";
+                for (int i = 0; i < family.bucketMicros.length; i++) {
+                    sample(out, family.name + "_bucket", separator + "le=\"" + family.bucketBounds[i] + "\"",
+                            Long.toString(snapshot.countAtOrBelow(family.bucketMicros[i])));
+                }
+                sample(out, family.name + "_bucket", separator + "le=\"+Inf\"", Long.toString(snapshot.getCount()));
+                sample(out, family.name + "_sum", labels, formatDouble(snapshot.getSum() / 1_000_000.0));
+                sample(out, family.name + "_count", labels, Long.toString(snapshot.getCount()));
+                break;
+        }
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, String value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static Family family(String name, String help, Type type, double[] buckets) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, buckets));
+        if (family.type != type) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type.text);
+        }
+        return family;
+    }
+
+    // name1="value1",name2="value2" from name/value pairs
+    private static String renderLabels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            rendered.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+        }
+        return rendered.toString();
+    }
+
+    private static String escapeLabel(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
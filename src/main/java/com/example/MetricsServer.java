@@ -0,0 +1,70 @@
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local scrape endpoint for Prometheus: GET /metrics returns every metric in Metrics.
+ * Listens on the loopback address only, so the numbers never leave the machine unless
+ * a local Prometheus (or node exporter proxy) forwards them.
+ *
+ * Settings (system properties):
+ *   restaurant.metrics.port=9464   port to listen on; -1 turns the endpoint off
+ */
+public class MetricsServer {
+    public static final int DEFAULT_PORT = 9464;
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server;
+
+    // Start the endpoint unless restaurant.metrics.port is -1; a busy port is reported and ignored
+    public static synchronized void startIfEnabled() {
+        int port = Integer.getInteger("restaurant.metrics.port", DEFAULT_PORT);
+        if (port < 0 || server != null) {
+            return;
+        }
+        try {
+            HttpServer started = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 16);
+            started.createContext("/metrics", MetricsServer::scrape);
+            started.start();
+            server = started;
+            System.out.println("Metrics available at http://localhost:" + getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("Could not start the metrics endpoint on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    // Port the endpoint listens on, -1 when it is not running
+    public static synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    private static void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a screen transition: loading the new screen's FXML (unless cached),
+ * setting it as the scene root and the controllers' onHide/onShow. Layout and rendering
+ * happen on the next pulse and are not included.
+ */
+@Name("com.example.ScreenNavigation")
+@Label("Screen Navigation")
+@Category({ "Restaurant", "JavaFX" })
+@Description("Switch of the scene root to another FXML screen")
+final class NavigationEvent extends jdk.jfr.Event {
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Cached")
+    @Description("Shown from the screen cache, without parsing its FXML")
+    boolean cached;
+}
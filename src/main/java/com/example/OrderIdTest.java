@@ -0,0 +1,86 @@
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class OrderIdTest {
+    private static final int ORDERS = 1000;
+    private static final int THREADS = 32;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Order ID Concurrency Test ===\n");
+
+        // Use a throwaway database so the test never touches restaurant.db
+        Path dbFile = Files.createTempFile("restaurant-orderid-test", ".db");
+        DatabaseManager.initialize(dbFile.toString());
+
+        // Test 1: place ORDERS orders from THREADS threads at the same moment
+        System.out.println("Test 1: Placing " + ORDERS + " orders from " + THREADS + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < ORDERS; i++) {
+            String clientNumber = String.format("%010d", i % THREADS);
+            results.add(executor.submit(() -> {
+                start.await();
+                return DatabaseManager.addOrder("Load Test", clientNumber, "Pizza", 1, 18.00,
+                        Order.getCurrentTimestamp());
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        int failed = 0;
+        for (Future<Boolean> result : results) {
+            if (!result.get()) {
+                failed++;
+            }
+        }
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        executor.shutdown();
+        System.out.println("Result: " + (ORDERS - failed) + " placed, " + failed + " failed in " + elapsedMs + " ms\n");
+
+        // Test 2: every order got its own order_id
+        System.out.println("Test 2: Checking order_id uniqueness");
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+                Statement stmt = lease.connection().createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*), COUNT(DISTINCT order_id), MIN(order_id), MAX(order_id), " +
+                                "(SELECT value FROM sequences WHERE name = 'order_id') FROM orders")) {
+            rs.next();
+            int rows = rs.getInt(1);
+            int distinct = rs.getInt(2);
+            System.out.println("Rows: " + rows + ", distinct order_ids: " + distinct);
+            System.out.println("order_id range: " + rs.getInt(3) + " - " + rs.getInt(4)
+                    + ", sequence high-water mark: " + rs.getLong(5));
+            System.out.println("Result: " + (rows == ORDERS && distinct == ORDERS && failed == 0
+                    ? "All order IDs unique" : "FAILED - duplicate or missing order IDs") + "\n");
+        } catch (SQLException e) {
+            System.err.println("Error checking order IDs: " + e.getMessage());
+        }
+
+        System.out.println("Statement cache: " + DatabaseManager.getStatementCacheStats() + "\n");
+
+        DatabaseManager.close();
+        deleteDatabase(dbFile);
+
+        System.out.println("=== All tests completed ===");
+    }
+
+    private static void deleteDatabase(Path dbFile) throws IOException {
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+}
@@ -1,143 +1,304 @@
 package com.example;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Kitchen queue: the pending orders, kept in memory so kitchen displays and stations
+ * never query SQLite.
+ * Pending tickets are indexed by order id and by table in concurrent maps, and wait
+ * for a station in a lock-free FIFO queue. Status changes are a compare-and-set on the
+ * ticket, so completing or cancelling is O(1) and happens once even when two
+ * terminals race. Finished tickets go to a bounded history ring.
+ * The queue follows ChangeFeed (it subscribes before any screen, so it is up to date
+ * when screens see an event) and is rebuilt from the orders table by start().
+ * Metrics: pending orders, orders placed, and how long orders stay Pending before they
+ * are completed or cancelled.
+ */
 public class OrderService {
-    // Static ObservableList to store all orders
-    private static final ObservableList<Order> allOrders = FXCollections.observableArrayList();
+    public static final int HISTORY_SIZE = 256;
+    // Bucket bounds in seconds for the time an order stays Pending
+    private static final double[] PENDING_BUCKETS = { 30, 60, 120, 300, 600, 900, 1200, 1800, 2700, 3600, 7200 };
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * One order as the kitchen sees it.
+     */
+    public static final class Ticket {
+        private final int orderId;
+        private final String clientName;
+        private final int tableNumber;
+        private final String orderDate;
+        private final List<OrderItem> lines;
+        private final long pendingSinceMillis;
+        private final AtomicReference<String> status = new AtomicReference<>(Order.STATUS_PENDING);
+        private final AtomicReference<String> station = new AtomicReference<>();
+
+        Ticket(int orderId, String clientName, int tableNumber, String orderDate, List<OrderItem> lines,
+                long pendingSinceMillis) {
+            this.orderId = orderId;
+            this.clientName = clientName;
+            this.tableNumber = tableNumber;
+            this.orderDate = orderDate;
+            this.lines = List.copyOf(lines);
+            this.pendingSinceMillis = pendingSinceMillis;
+        }
+
+        public int getOrderId() { return orderId; }
+        public String getClientName() { return clientName; }
+        public int getTableNumber() { return tableNumber; }
+        public String getOrderDate() { return orderDate; }
+        public List<OrderItem> getLines() { return lines; }
+        public String getStatus() { return status.get(); }
+        // Station working on the ticket, null while it waits
+        public String getStation() { return station.get(); }
+        public boolean isPending() { return Order.STATUS_PENDING.equals(status.get()); }
+    }
+
+    private static final Map<Integer, Ticket> pendingById = new ConcurrentHashMap<>();
+    private static final Map<Integer, Set<Ticket>> pendingByTable = new ConcurrentHashMap<>();
+    // Tickets not yet taken by a station; finished tickets are skipped when they reach the head
+    private static final Queue<Ticket> undispatched = new ConcurrentLinkedQueue<>();
+    private static final AtomicReferenceArray<Ticket> history = new AtomicReferenceArray<>(HISTORY_SIZE);
+    private static final AtomicLong historyCount = new AtomicLong();
+
+    private static final Metrics.Counter placedOrders = Metrics.counter("restaurant_orders_placed_total",
+            "Orders placed; rate(restaurant_orders_placed_total[1m]) * 60 is orders per minute");
+    private static final LatencyHistogram completedAfter = transitionHistogram(Order.STATUS_COMPLETED);
+    private static final LatencyHistogram cancelledAfter = transitionHistogram(Order.STATUS_CANCELLED);
 
-    // Static initializer to add some sample data
     static {
-        initializeSampleData();
+        Metrics.gauge("restaurant_orders_pending", "Orders waiting in the kitchen queue", OrderService::getPendingCount);
     }
 
+    private static ChangeFeed.Subscription subscription;
+
     /**
-     * Get all orders
-     * @return ObservableList of all orders
+     * Follow order changes and load the pending orders. Call once after
+     * DatabaseManager.initialize().
      */
-    public static ObservableList<Order> getAllOrders() {
-        return allOrders;
+    public static synchronized void start() {
+        if (subscription != null) {
+            return;
+        }
+        subscription = ChangeFeed.subscribe(OrderService::apply);
+        recover();
     }
 
-    /**
-     * Get order items for a specific order
-     * @param order The order to get items for
-     * @return ObservableList of order items
-     */
-    public static ObservableList<OrderItem> getItemsForOrder(Order order) {
-        return order.getOrderItems();
+    public static synchronized void stop() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+        pendingById.clear();
+        pendingByTable.clear();
+        undispatched.clear();
     }
 
-    /**
-     * Mark an order as completed
-     * @param order The order to mark as completed
-     */
-    public static void markOrderCompleted(Order order) {
-        order.setStatus(Order.STATUS_COMPLETED);
+    // Pending orders in arrival order
+    public static List<Ticket> getPendingOrders() {
+        return sorted(pendingById.values());
     }
 
-    /**
-     * Cancel an order
-     * @param order The order to cancel
-     */
-    public static void cancelOrder(Order order) {
-        order.setStatus(Order.STATUS_CANCELLED);
+    public static List<Ticket> getPendingOrdersForTable(int tableNumber) {
+        Set<Ticket> tickets = pendingByTable.get(tableNumber);
+        return tickets == null ? List.of() : sorted(tickets);
     }
 
-    /**
-     * Add a new order to the service
-     * @param order The order to add
-     */
-    public static void addOrder(Order order) {
-        allOrders.add(order);
+    public static int getPendingCount() {
+        return pendingById.size();
     }
 
     /**
-     * Remove an order from the service
-     * @param order The order to remove
+     * A pending ticket, or a recently finished one from the history.
+     * @return null if the order is neither pending nor in the history
      */
-    public static void removeOrder(Order order) {
-        allOrders.remove(order);
+    public static Ticket getOrderById(int orderId) {
+        Ticket ticket = pendingById.get(orderId);
+        if (ticket != null) {
+            return ticket;
+        }
+        for (Ticket finished : getHistory()) {
+            if (finished.getOrderId() == orderId) {
+                return finished;
+            }
+        }
+        return null;
     }
 
     /**
-     * Get an order by ID
-     * @param orderId The order ID to search for
-     * @return The order if found, null otherwise
+     * Hand the oldest waiting ticket to a station.
+     * @return the ticket, or null when nothing is waiting
      */
-    public static Order getOrderById(int orderId) {
-        return allOrders.stream()
-                .filter(order -> order.getOrderId() == orderId)
-                .findFirst()
-                .orElse(null);
+    public static Ticket dispatchNext(String station) {
+        Ticket ticket;
+        while ((ticket = undispatched.poll()) != null) {
+            // Finished while waiting, or (after recovery) taken by another station
+            if (ticket.isPending() && ticket.station.compareAndSet(null, station)) {
+                return ticket;
+            }
+        }
+        return null;
     }
 
-    /**
-     * Initialize sample data for demonstration
-     */
-    private static void initializeSampleData() {
-        // Sample menu items with realistic prices
-        String[] menuItems = {
-            "Grilled Salmon", "Ribeye Steak", "Chicken Parmesan", "Vegetarian Pasta",
-            "Caesar Salad", "French Fries", "Mashed Potatoes", "Garlic Bread",
-            "Chocolate Cake", "Cheesecake", "Tiramisu", "Ice Cream",
-            "Coffee", "Tea", "Soda", "Beer", "Wine"
-        };
-
-        double[] prices = {
-            24.99, 32.99, 18.99, 16.99,
-            12.99, 6.99, 7.99, 5.99,
-            8.99, 7.99, 9.99, 6.99,
-            3.99, 2.99, 2.49, 5.99, 8.99
-        };
-
-        // Create 6 sample orders with varied items and statuses
-        Order order1 = new Order(1, 5, "2024-01-15 12:30:00", Order.STATUS_COMPLETED);
-        order1.addOrderItem(new OrderItem("Ribeye Steak", 1, 32.99));
-        order1.addOrderItem(new OrderItem("Caesar Salad", 1, 12.99));
-        order1.addOrderItem(new OrderItem("Garlic Bread", 2, 5.99));
-        order1.addOrderItem(new OrderItem("Chocolate Cake", 1, 8.99));
-
-        Order order2 = new Order(2, 3, "2024-01-15 13:15:00", Order.STATUS_PENDING);
-        order2.addOrderItem(new OrderItem("Grilled Salmon", 1, 24.99));
-        order2.addOrderItem(new OrderItem("French Fries", 1, 6.99));
-        order2.addOrderItem(new OrderItem("Soda", 2, 2.49));
-
-        Order order3 = new Order(3, 7, "2024-01-15 14:00:00", Order.STATUS_COMPLETED);
-        order3.addOrderItem(new OrderItem("Chicken Parmesan", 1, 18.99));
-        order3.addOrderItem(new OrderItem("Mashed Potatoes", 1, 7.99));
-        order3.addOrderItem(new OrderItem("Ice Cream", 1, 6.99));
-        order3.addOrderItem(new OrderItem("Coffee", 1, 3.99));
-
-        Order order4 = new Order(4, 2, "2024-01-15 14:45:00", Order.STATUS_PENDING);
-        order4.addOrderItem(new OrderItem("Vegetarian Pasta", 1, 16.99));
-        order4.addOrderItem(new OrderItem("Garlic Bread", 1, 5.99));
-        order4.addOrderItem(new OrderItem("Cheesecake", 1, 7.99));
-
-        Order order5 = new Order(5, 8, "2024-01-15 15:30:00", Order.STATUS_COMPLETED);
-        order5.addOrderItem(new OrderItem("Ribeye Steak", 2, 32.99));
-        order5.addOrderItem(new OrderItem("Caesar Salad", 2, 12.99));
-        order5.addOrderItem(new OrderItem("Wine", 1, 8.99));
-        order5.addOrderItem(new OrderItem("Tiramisu", 2, 9.99));
-
-        Order order6 = new Order(6, 1, "2024-01-15 16:00:00", Order.STATUS_PENDING);
-        order6.addOrderItem(new OrderItem("Grilled Salmon", 1, 24.99));
-        order6.addOrderItem(new OrderItem("French Fries", 1, 6.99));
-        order6.addOrderItem(new OrderItem("Beer", 2, 5.99));
-
-        Order order7 = new Order(7, 6, "2024-01-15 16:30:00", Order.STATUS_COMPLETED);
-        order7.addOrderItem(new OrderItem("Chicken Parmesan", 1, 18.99));
-        order7.addOrderItem(new OrderItem("Mashed Potatoes", 1, 7.99));
-        order7.addOrderItem(new OrderItem("Tea", 1, 2.99));
-
-        Order order8 = new Order(8, 4, "2024-01-15 17:00:00", Order.STATUS_PENDING);
-        order8.addOrderItem(new OrderItem("Vegetarian Pasta", 1, 16.99));
-        order8.addOrderItem(new OrderItem("Caesar Salad", 1, 12.99));
-        order8.addOrderItem(new OrderItem("Soda", 1, 2.49));
-        order8.addOrderItem(new OrderItem("Ice Cream", 1, 6.99));
-        order8.addOrderItem(new OrderItem("Coffee", 1, 3.99));
-
-        allOrders.addAll(order1, order2, order3, order4, order5, order6, order7, order8);
-    }
-}
\ No newline at end of file
+    // Finished tickets, newest first (best effort while other threads are finishing tickets)
+    public static List<Ticket> getHistory() {
+        List<Ticket> recent = new ArrayList<>();
+        long end = historyCount.get();
+        for (long slot = end - 1; slot >= Math.max(0, end - HISTORY_SIZE); slot--) {
+            Ticket ticket = history.get((int) (slot % HISTORY_SIZE));
+            if (ticket != null) {
+                recent.add(ticket);
+            }
+        }
+        return recent;
+    }
+
+    // Called on the writing thread for every committed change
+    private static void apply(ChangeFeed.Change change) {
+        if (change instanceof ChangeFeed.OrderPlaced placed) {
+            placedOrders.increment();
+            add(new Ticket(placed.orderId(), placed.clientName(), placed.tableNumber(), placed.orderDate(),
+                    placed.lines(), System.currentTimeMillis()));
+        } else if (change instanceof ChangeFeed.OrderStatusChanged changed) {
+            if (Order.STATUS_PENDING.equals(changed.status())) {
+                reopen(changed.orderId());
+            } else {
+                finish(changed.orderId(), changed.status());
+            }
+        }
+    }
+
+    private static void add(Ticket ticket) {
+        // Recovery and the feed can both deliver an order placed during start()
+        if (pendingById.putIfAbsent(ticket.getOrderId(), ticket) == null) {
+            pendingByTable.computeIfAbsent(ticket.getTableNumber(), table -> ConcurrentHashMap.newKeySet())
+                    .add(ticket);
+            undispatched.add(ticket);
+        }
+    }
+
+    // Pending -> Completed or Cancelled; only the first of concurrent transitions wins
+    private static boolean finish(int orderId, String status) {
+        Ticket ticket = pendingById.get(orderId);
+        if (ticket == null || !ticket.status.compareAndSet(Order.STATUS_PENDING, status)) {
+            return false;
+        }
+        pendingById.remove(orderId, ticket);
+        Set<Ticket> tableTickets = pendingByTable.get(ticket.getTableNumber());
+        if (tableTickets != null) {
+            tableTickets.remove(ticket);
+        }
+        history.set((int) (historyCount.getAndIncrement() % HISTORY_SIZE), ticket);
+        long pendingMicros = (System.currentTimeMillis() - ticket.pendingSinceMillis) * 1000;
+        if (Order.STATUS_COMPLETED.equals(status)) {
+            completedAfter.record(pendingMicros);
+        } else if (Order.STATUS_CANCELLED.equals(status)) {
+            cancelledAfter.record(pendingMicros);
+        } else {
+            transitionHistogram(status).record(pendingMicros);
+        }
+        return true;
+    }
+
+    // An order set back to Pending goes to the back of the queue as a new ticket
+    private static void reopen(int orderId) {
+        if (pendingById.containsKey(orderId)) {
+            return;
+        }
+        List<Order> rows = DatabaseManager.getOrdersByOrderId(orderId);
+        if (!rows.isEmpty()) {
+            add(toTicket(rows, System.currentTimeMillis()));
+        }
+    }
+
+    static final String PENDING_ORDER_LINES =
+            "SELECT order_id, client_name, table_number, item_name, quantity, price, order_date " +
+            "FROM orders WHERE status = ? ORDER BY order_id, id";
+
+    // Rebuild the queue from the Pending rows of the orders table
+    private static void recover() {
+        // Read under the writer lease: no order can commit between this snapshot and the
+        // feed events that follow it
+        int recovered = 0;
+        try (ConnectionPool.Lease lease = DatabaseManager.writer();
+                PreparedStatement pstmt = lease.connection().prepareStatement(PENDING_ORDER_LINES)) {
+            pstmt.setString(1, Order.STATUS_PENDING);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                List<Order> rows = new ArrayList<>();
+                while (rs.next()) {
+                    int orderId = rs.getInt("order_id");
+                    if (!rows.isEmpty() && rows.get(0).getOrderId() != orderId) {
+                        add(toTicket(rows, millisOf(rows.get(0).getOrderDate())));
+                        recovered++;
+                        rows.clear();
+                    }
+                    rows.add(new Order(0, orderId, rs.getString("client_name"), null, rs.getInt("table_number"),
+                            rs.getString("item_name"), rs.getInt("quantity"), rs.getDouble("price"),
+                            rs.getString("order_date"), Order.STATUS_PENDING));
+                }
+                if (!rows.isEmpty()) {
+                    add(toTicket(rows, millisOf(rows.get(0).getOrderDate())));
+                    recovered++;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error recovering the kitchen queue: " + e.getMessage());
+            e.printStackTrace();
+        }
+        System.out.println("Kitchen queue recovered " + recovered + " pending orders");
+    }
+
+    // One ticket from the rows of one order, Pending since the given time
+    private static Ticket toTicket(List<Order> rows, long pendingSinceMillis) {
+        Order first = rows.get(0);
+        List<OrderItem> lines = new ArrayList<>();
+        for (Order row : rows) {
+            lines.add(new OrderItem(row.getItemName(), row.getQuantity(), row.getPrice()));
+        }
+        return new Ticket(first.getOrderId(), first.getClientName(), first.getTableNumber(), first.getOrderDate(),
+                lines, pendingSinceMillis);
+    }
+
+    // Time of an order_date in the local time zone; now if it cannot be parsed
+    private static long millisOf(String orderDate) {
+        if (orderDate == null) {
+            return System.currentTimeMillis();
+        }
+        try {
+            return LocalDateTime.parse(orderDate, ORDER_DATE_FORMAT).atZone(ZoneId.systemDefault()).toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    private static LatencyHistogram transitionHistogram(String status) {
+        return Metrics.histogram("restaurant_order_status_transition_seconds",
+                "Time an order stays Pending before it changes to another status", PENDING_BUCKETS,
+                "from", Order.STATUS_PENDING, "to", status);
+    }
+
+    private static List<Ticket> sorted(Iterable<Ticket> tickets) {
+        List<Ticket> list = new ArrayList<>();
+        tickets.forEach(list::add);
+        list.sort(Comparator.comparingInt(Ticket::getOrderId));
+        return list;
+    }
+}
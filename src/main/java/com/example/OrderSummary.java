@@ -23,7 +23,7 @@ public class OrderSummary {
     private final SimpleStringProperty status;
 
     // Business data
-    private List<Order> orderItems;
+    private volatile List<Order> orderItems; // may be filled from a background thread
     private String clientName;
     private String clientNumber;
 
@@ -54,7 +54,13 @@ public class OrderSummary {
     public String getStatus() { return status.get(); }
     public String getClientName() { return clientName; }
     public String getClientNumber() { return clientNumber; }
-    public List<Order> getOrderItems() { return orderItems; }
+    public List<Order> getOrderItems() {
+        // Summaries loaded without items fetch them on first access
+        if (orderItems == null) {
+            orderItems = DatabaseManager.getOrdersByOrderId(getOrderId());
+        }
+        return orderItems;
+    }
 
     // Regular setters
     public void setOrderId(int orderId) { this.orderId.set(orderId); }
@@ -14,6 +14,10 @@ public class OrderTest {
         String clientName = "John Doe";
         String clientNumber = "12345";
 
+        // Record what the change feed publishes for the writes below
+        java.util.List<ChangeFeed.Change> changes = new java.util.concurrent.CopyOnWriteArrayList<>();
+        ChangeFeed.Subscription subscription = ChangeFeed.subscribe(changes::add);
+
         // Test 1: Add reservation
         System.out.println("Test 1: Adding reservation for " + clientName + " " + clientNumber + " at table 1");
         boolean reservationAdded = DatabaseManager.addReservation(clientName, clientNumber, 1, 4);
@@ -30,14 +34,57 @@ public class OrderTest {
         boolean orderAdded = DatabaseManager.addOrder(clientName, clientNumber, "Pizza", 2, 15.99, "2024-01-15 12:30:00");
         System.out.println("Order added: " + (orderAdded ? "Success" : "Failed"));
 
-        // Test 4: Check order summaries
-        System.out.println("\nTest 4: Retrieving order summaries");
+        // Test 4: Place a multi-line cart order
+        System.out.println("\nTest 4: Placing a cart order for " + clientName + " " + clientNumber);
+        Cart cart = new Cart();
+        cart.addItem("Pizza", 1, 15.99);
+        cart.addItem("Salad", 2, 8.50);
+        cart.addItem("Pizza", 1, 15.99);
+        boolean cartPlaced = DatabaseManager.placeOrder(clientName, clientNumber, cart.getItems());
+        System.out.println("Cart order placed: " + (cartPlaced ? "Success" : "Failed")
+                + " (" + cart.getItems().size() + " lines, " + cart.getItemCount() + " items, $" + cart.getTotal() + ")");
+
+        // Test 5: Check order summaries
+        System.out.println("\nTest 5: Retrieving order summaries");
         java.util.List<OrderSummary> summaries = DatabaseManager.getOrderSummaries();
         System.out.println("Found " + summaries.size() + " order summaries:");
         for (OrderSummary summary : summaries) {
             System.out.println("  Order " + summary.getOrderId() + " at table " + summary.getTableNumber() + " total $" + summary.getTotal());
         }
 
+        // Test 6: Status change and the published changes
+        System.out.println("\nTest 6: Completing the last order and checking the change feed");
+        int lastOrderId = summaries.get(summaries.size() - 1).getOrderId();
+        boolean completed = DatabaseManager.updateOrderStatus(lastOrderId, OrderSummary.STATUS_COMPLETED);
+        subscription.close();
+        System.out.println("Order " + lastOrderId + " completed: " + (completed ? "Success" : "Failed"));
+        System.out.println("Published " + changes.size() + " changes:");
+        for (ChangeFeed.Change change : changes) {
+            System.out.println("  " + change);
+        }
+
+        // Test 7: Kitchen queue
+        System.out.println("\nTest 7: Dispatching and completing an order through the kitchen queue");
+        OrderService.start();
+        int pendingBefore = OrderService.getPendingCount();
+        int kitchenOrderId = DatabaseManager.placeOrderReturningId(clientName, clientNumber,
+                java.util.List.of(new OrderItem("Pizza", 1, 15.99)));
+        System.out.println("Pending orders: " + pendingBefore + " -> " + OrderService.getPendingCount());
+        // Older pending orders are ahead of the new one
+        OrderService.Ticket ticket = OrderService.dispatchNext("grill");
+        while (ticket != null && ticket.getOrderId() != kitchenOrderId) {
+            ticket = OrderService.dispatchNext("grill");
+        }
+        System.out.println("Dispatched order " + kitchenOrderId + ": " + (ticket != null ? "Success" : "Failed"));
+        DatabaseManager.updateOrderStatus(kitchenOrderId, OrderSummary.STATUS_COMPLETED);
+        OrderService.Ticket finished = OrderService.getOrderById(kitchenOrderId);
+        boolean inHistory = !OrderService.getHistory().isEmpty()
+                && OrderService.getHistory().get(0).getOrderId() == kitchenOrderId;
+        System.out.println("Order " + kitchenOrderId + " status " + (finished == null ? null : finished.getStatus())
+                + ", at station " + (finished == null ? null : finished.getStation())
+                + ", newest in history: " + inHistory);
+        OrderService.stop();
+
         // Close database
         DatabaseManager.close();
 
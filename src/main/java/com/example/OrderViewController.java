@@ -9,9 +9,10 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
-public class OrderViewController {
+public class OrderViewController implements ScreenController {
 
     @FXML
     private TableView<Order> ordersTable;
@@ -40,14 +41,38 @@ public class OrderViewController {
     private String clientName;
     private String clientNumber;
 
+    private final AsyncDatabase.Requests requests = new AsyncDatabase.Requests();
+    private final ObservableList<Order> orderData = FXCollections.observableArrayList();
+    private ChangeFeed.Subscription changes;
+
     @FXML
     public void initialize() {
+        // Drop queries still running when the client leaves this screen
+        requests.cancelWhenRemoved(statusLabel);
+
         // Set up table columns
         itemNameColumn.setCellValueFactory(new PropertyValueFactory<>("itemName"));
         quantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
         priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
         totalPriceColumn.setCellValueFactory(new PropertyValueFactory<>("totalPrice"));
         orderDateColumn.setCellValueFactory(new PropertyValueFactory<>("orderDate"));
+        ordersTable.setItems(orderData);
+    }
+
+    @Override
+    public void onShow() {
+        // Orders placed while this screen is open are added without reloading
+        changes = ChangeFeed.subscribeOnFx(this::applyChange);
+    }
+
+    // The screen is cached: the next client must not see this client's orders
+    @Override
+    public void onHide() {
+        if (changes != null) {
+            changes.close();
+            changes = null;
+        }
+        orderData.clear();
     }
 
     public void setClientInfo(String name, String number) {
@@ -64,25 +89,62 @@ public class OrderViewController {
             return;
         }
 
-        List<Order> orders = DatabaseManager.getClientOrders(clientName, clientNumber);
+        statusLabel.setText("Loading orders...");
+        statusLabel.setStyle("-fx-text-fill: #6c757d;");
+        ordersTable.setPlaceholder(new Label("Loading orders..."));
+
+        requests.submit("orders", () -> DatabaseManager.getClientOrders(clientName, clientNumber), orders -> {
+            ordersTable.setPlaceholder(new Label("No orders"));
+            orderData.setAll(orders);
+            updateStatusLabel();
+        }, e -> {
+            ordersTable.setPlaceholder(new Label("No orders"));
+            statusLabel.setText("Error loading orders");
+            statusLabel.setStyle("-fx-text-fill: #dc3545;");
+        });
+    }
 
-        if (orders.isEmpty()) {
+    private void updateStatusLabel() {
+        if (orderData.isEmpty()) {
             statusLabel.setText("No orders found. Start ordering from the menu!");
             statusLabel.setStyle("-fx-text-fill: #6c757d;");
         } else {
-            statusLabel.setText("Total orders: " + orders.size());
+            statusLabel.setText("Total orders: " + orderData.size());
             statusLabel.setStyle("-fx-text-fill: #27ae60;");
         }
+    }
 
-        ObservableList<Order> orderData = FXCollections.observableArrayList(orders);
-        ordersTable.setItems(orderData);
+    private void applyChange(ChangeFeed.Change change) {
+        if (clientName == null) {
+            return;
+        }
+        if (change instanceof ChangeFeed.OrderPlaced placed && placed.isFor(clientName, clientNumber)) {
+            if (requests.isLoading("orders")) {
+                // The running query may have missed the new order; start it again
+                loadOrders();
+                return;
+            }
+            // Newest first, like getClientOrders; the event carries no row ids
+            List<Order> lines = new ArrayList<>();
+            for (OrderItem line : placed.lines()) {
+                lines.add(new Order(0, placed.orderId(), clientName, clientNumber, placed.tableNumber(),
+                        line.getItemName(), line.getQuantity(), line.getPrice(), placed.orderDate(),
+                        Order.STATUS_PENDING));
+            }
+            orderData.addAll(0, lines);
+            updateStatusLabel();
+        } else if (change instanceof ChangeFeed.OrderStatusChanged changed) {
+            for (Order order : orderData) {
+                if (order.getOrderId() == changed.orderId()) {
+                    order.setStatus(changed.status());
+                }
+            }
+        }
     }
 
     @FXML
     private void handleRefresh() {
         loadOrders();
-        statusLabel.setText("Orders refreshed!");
-        statusLabel.setStyle("-fx-text-fill: #27ae60;");
     }
 
     @FXML
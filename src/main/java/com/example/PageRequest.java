@@ -0,0 +1,49 @@
+package com.example;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paged query: up to limit rows that come after (forward) or
+ * before (backward) the anchor row in the requested sort. A null anchor starts at the
+ * first row. Queries seek with "WHERE (sort column, id) > (anchor values)" instead of
+ * OFFSET, so every page costs the same however deep the user has scrolled.
+ * sortColumn is always one of the column names a controller registered, never user text.
+ */
+public record PageRequest<T>(String sortColumn, boolean ascending, String filter, T anchor, boolean forward,
+        int limit) {
+
+    // Direction rows are read in SQL; a backward page reads the sort order in reverse
+    public boolean scanAscending() {
+        return ascending == forward;
+    }
+
+    /**
+     * Keyset condition for the anchor, e.g. "(name, id) > (?, ?)". When the sort column
+     * is the unique id itself a single comparison is enough.
+     */
+    public String seek(String idColumn) {
+        String operator = scanAscending() ? " > " : " < ";
+        if (sortColumn.equals(idColumn)) {
+            return sortColumn + operator + "?";
+        }
+        return "(" + sortColumn + ", " + idColumn + ")" + operator + "(?, ?)";
+    }
+
+    // ORDER BY clause matching seek(); the id breaks ties between equal sort values
+    public String orderBy(String idColumn) {
+        String direction = scanAscending() ? " ASC" : " DESC";
+        if (sortColumn.equals(idColumn)) {
+            return sortColumn + direction;
+        }
+        return sortColumn + direction + ", " + idColumn + direction;
+    }
+
+    // Rows of a backward page are read in reverse; flip them back to display order
+    public <R> List<R> inDisplayOrder(List<R> rows) {
+        if (!forward) {
+            Collections.reverse(rows);
+        }
+        return rows;
+    }
+}
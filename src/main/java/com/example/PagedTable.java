@@ -0,0 +1,232 @@
+package com.example;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Feeds a TableView one page at a time from a keyset-paged query.
+ * The table holds a sliding window of at most MAX_PAGES pages: scrolling near the
+ * bottom fetches the rows after the last one and drops rows from the top, scrolling
+ * near the top fetches the rows before the first one and drops rows from the bottom.
+ * Sorting and filtering are done by the query; clicking a registered column header
+ * reloads from the first row in the new order instead of sorting the window in memory.
+ */
+public final class PagedTable<T> {
+    public static final int PAGE_SIZE = 100;
+    public static final int MAX_PAGES = 3;
+
+    // Fetch position (0 = top, 1 = bottom of the window) that triggers the next page
+    private static final double EDGE = 0.1;
+    private static final String REQUEST_KEY = "page";
+
+    /**
+     * The query behind a table. Runs on a background thread; returns the rows in
+     * display order and an empty list when there are no more.
+     */
+    public interface PageSource<T> {
+        List<T> fetch(PageRequest<T> request);
+    }
+
+    private final TableView<T> table;
+    private final AsyncDatabase.Requests requests;
+    private final PageSource<T> source;
+    private final String defaultSortColumn;
+    private final ObservableList<T> window = FXCollections.observableArrayList();
+    private final Map<TableColumn<T, ?>, String> sortColumns = new HashMap<>();
+
+    private String filter;
+    private VirtualFlow<?> flow;
+    private boolean atStart = true;
+    private boolean atEnd = true;
+    private Runnable onLoaded = () -> { };
+    private Consumer<Throwable> onError = e -> { };
+
+    public PagedTable(TableView<T> table, AsyncDatabase.Requests requests, String defaultSortColumn,
+            PageSource<T> source) {
+        this.table = table;
+        this.requests = requests;
+        this.source = source;
+        this.defaultSortColumn = defaultSortColumn;
+
+        table.setItems(window);
+        // Rows arrive sorted from the query; only columns registered with sortBy can be clicked
+        table.setSortPolicy(t -> true);
+        for (TableColumn<T, ?> column : table.getColumns()) {
+            column.setSortable(false);
+        }
+        table.getSortOrder().addListener((ListChangeListener<TableColumn<T, ?>>) change -> reload());
+
+        if (table.getSkin() != null) {
+            attachFlow();
+        }
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachFlow());
+    }
+
+    /**
+     * Let the column be sorted by the given SQL column (must be indexed together with
+     * the id so the keyset seek stays an index search).
+     */
+    public PagedTable<T> sortBy(TableColumn<T, ?> column, String sqlColumn) {
+        sortColumns.put(column, sqlColumn);
+        column.setSortable(true);
+        column.sortTypeProperty().addListener((obs, oldType, newType) -> {
+            if (table.getSortOrder().contains(column)) {
+                reload();
+            }
+        });
+        return this;
+    }
+
+    public PagedTable<T> setOnLoaded(Runnable onLoaded) {
+        this.onLoaded = onLoaded;
+        return this;
+    }
+
+    public PagedTable<T> setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+        return this;
+    }
+
+    // Passed to the query as PageRequest.filter; null or blank shows every row
+    public void setFilter(String filter) {
+        this.filter = filter == null || filter.isBlank() ? null : filter.trim();
+        reload();
+    }
+
+    // Drop the window and load the first page again (after a sort, filter or data change)
+    public void reload() {
+        PageRequest<T> request = request(null, true);
+        requests.submit(REQUEST_KEY, () -> source.fetch(request), rows -> {
+            window.setAll(rows);
+            atStart = true;
+            atEnd = rows.size() < PAGE_SIZE;
+            table.scrollTo(0);
+            onLoaded.run();
+        }, onError);
+    }
+
+    /**
+     * Show a row created after the window was loaded whose key sorts after every other
+     * row in the default sort (e.g. a new order by order_id). It is added only when that
+     * end of the data is in the window; otherwise paging picks it up. The caller checks
+     * that the row matches the current filter.
+     */
+    public void addNewest(T row) {
+        PageRequest<T> current = request(null, true);
+        // Skipped while a page is loading: that page may already contain the row
+        if (!current.sortColumn().equals(defaultSortColumn) || requests.isLoading(REQUEST_KEY)) {
+            return;
+        }
+        if (current.ascending() && atEnd) {
+            window.add(row);
+            if (window.size() > PAGE_SIZE * MAX_PAGES) {
+                window.remove(0);
+                atStart = false;
+            }
+        } else if (!current.ascending() && atStart) {
+            window.add(0, row);
+            if (window.size() > PAGE_SIZE * MAX_PAGES) {
+                window.remove(window.size() - 1);
+                atEnd = false;
+            }
+        }
+    }
+
+    private void loadNext() {
+        if (atEnd || window.isEmpty() || requests.isLoading(REQUEST_KEY)) {
+            return;
+        }
+        PageRequest<T> request = request(window.get(window.size() - 1), true);
+        requests.submit(REQUEST_KEY, () -> source.fetch(request), rows -> {
+            atEnd = rows.size() < PAGE_SIZE;
+            if (rows.isEmpty()) {
+                return;
+            }
+            int firstVisible = firstVisibleIndex();
+            window.addAll(rows);
+
+            int excess = window.size() - PAGE_SIZE * MAX_PAGES;
+            if (excess > 0) {
+                window.remove(0, excess);
+                atStart = false;
+                // Keep the rows the user is looking at in place
+                scrollToTop(firstVisible - excess);
+            }
+            onLoaded.run();
+        }, onError);
+    }
+
+    private void loadPrevious() {
+        if (atStart || window.isEmpty() || requests.isLoading(REQUEST_KEY)) {
+            return;
+        }
+        PageRequest<T> request = request(window.get(0), false);
+        requests.submit(REQUEST_KEY, () -> source.fetch(request), rows -> {
+            atStart = rows.size() < PAGE_SIZE;
+            if (rows.isEmpty()) {
+                return;
+            }
+            int firstVisible = firstVisibleIndex();
+            window.addAll(0, rows);
+
+            int excess = window.size() - PAGE_SIZE * MAX_PAGES;
+            if (excess > 0) {
+                window.remove(window.size() - excess, window.size());
+                atEnd = false;
+            }
+            scrollToTop(firstVisible + rows.size());
+            onLoaded.run();
+        }, onError);
+    }
+
+    // Call on the FX thread, before submitting: the background query gets only the finished request
+    private PageRequest<T> request(T anchor, boolean forward) {
+        String sortColumn = defaultSortColumn;
+        boolean ascending = true;
+        for (TableColumn<T, ?> column : table.getSortOrder()) {
+            String sqlColumn = sortColumns.get(column);
+            if (sqlColumn != null) {
+                sortColumn = sqlColumn;
+                ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+                break;
+            }
+        }
+        return new PageRequest<>(sortColumn, ascending, filter, anchor, forward, PAGE_SIZE);
+    }
+
+    // The VirtualFlow is created by the skin; its position says how far the user has scrolled
+    private void attachFlow() {
+        if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> virtualFlow && virtualFlow != flow) {
+            flow = virtualFlow;
+            flow.positionProperty().addListener((obs, oldPosition, newPosition) -> {
+                double position = newPosition.doubleValue();
+                if (position > 1 - EDGE && position > oldPosition.doubleValue()) {
+                    loadNext();
+                } else if (position < EDGE && position < oldPosition.doubleValue()) {
+                    loadPrevious();
+                }
+            });
+        }
+    }
+
+    private void scrollToTop(int index) {
+        // The flow only learns the new row count on layout; do it now so the position is right
+        table.layout();
+        flow.scrollToTop(Math.max(0, index));
+    }
+
+    private int firstVisibleIndex() {
+        IndexedCell<?> cell = flow == null ? null : flow.getFirstVisibleCell();
+        return cell == null ? 0 : cell.getIndex();
+    }
+}
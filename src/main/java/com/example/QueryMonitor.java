@@ -0,0 +1,406 @@
+package com.example;
+
+import java.io.PrintStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Per-operation query statistics and the slow-query log.
+ * An operation is the method that leased the connection, e.g.
+ * "DatabaseManager.getOrderSummaries" or "SalesReport.getTotalRevenue": ConnectionPool
+ * opens a scope for every lease (nested leases open nested scopes) and StatementCache
+ * instruments every statement, so nothing in DatabaseManager or the controllers has to
+ * be changed. Per operation it records call latency (including the wait for a
+ * connection), connection wait, statements, rows read or written, BLOB bytes read and
+ * errors, all registered in Metrics.
+ * A statement slower than the threshold is written to a rotating log, optionally with
+ * its EXPLAIN QUERY PLAN. Every scope is also committed as a DatabaseEvent when Flight
+ * Recorder has that event enabled.
+ *
+ * Settings (system properties):
+ *   restaurant.db.instrument=false        turn instrumentation off
+ *   restaurant.db.slowQueryMs=100         slow-query threshold in milliseconds
+ *   restaurant.db.slowQueryLog=slow-queries.log   log file; rotates at 1 MB, 5 files kept
+ *   restaurant.db.slowQueryPlan=true      attach EXPLAIN QUERY PLAN to slow-query entries
+ */
+public class QueryMonitor {
+    public static final boolean ENABLED = !"false".equals(System.getProperty("restaurant.db.instrument"));
+
+    private static final long SLOW_QUERY_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("restaurant.db.slowQueryMs", 100));
+    private static final String SLOW_QUERY_LOG = System.getProperty("restaurant.db.slowQueryLog", "slow-queries.log");
+    private static final boolean CAPTURE_PLAN = Boolean.parseBoolean(
+            System.getProperty("restaurant.db.slowQueryPlan", "true"));
+    private static final String UNSCOPED = "unscoped";
+
+    private static final StackWalker STACK = StackWalker.getInstance(Set.of(StackWalker.Option.RETAIN_CLASS_REFERENCE), 4);
+    private static final ThreadLocal<Deque<Scope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private static Logger slowQueryLog; // created on the first slow query
+    private static boolean slowQueryLogFailed;
+
+    /**
+     * Counters of one operation, registered in Metrics with an operation label.
+     */
+    public static final class OperationStats {
+        private final String name;
+        private final LatencyHistogram latency;
+        private final LatencyHistogram wait;
+        private final Metrics.Counter statements;
+        private final Metrics.Counter rows;
+        private final Metrics.Counter blobBytes;
+        private final Metrics.Counter errors;
+        private final Metrics.Counter slowStatements;
+
+        private OperationStats(String name) {
+            this.name = name;
+            latency = Metrics.histogram("restaurant_db_operation_seconds",
+                    "Database operation latency, from asking for a connection to releasing it",
+                    Metrics.LATENCY_BUCKETS, "operation", name);
+            wait = Metrics.histogram("restaurant_db_pool_wait_seconds", "Time spent waiting for a pooled connection",
+                    Metrics.LATENCY_BUCKETS, "operation", name);
+            statements = Metrics.counter("restaurant_db_statements_total", "Statements executed", "operation", name);
+            rows = Metrics.counter("restaurant_db_rows_total", "Rows read or written", "operation", name);
+            blobBytes = Metrics.counter("restaurant_db_blob_bytes_total", "BLOB bytes read", "operation", name);
+            errors = Metrics.counter("restaurant_db_errors_total", "Statements that failed", "operation", name);
+            slowStatements = Metrics.counter("restaurant_db_slow_statements_total",
+                    "Statements over the slow-query threshold", "operation", name);
+        }
+
+        public String getName() { return name; }
+        // Call latency in microseconds, from asking for a connection to releasing it
+        public LatencyHistogram.Snapshot getLatency() { return latency.snapshot(); }
+        // Time spent waiting for a connection, in microseconds
+        public LatencyHistogram.Snapshot getConnectionWait() { return wait.snapshot(); }
+        public long getStatements() { return statements.get(); }
+        public long getRows() { return rows.get(); }
+        public long getBlobBytes() { return blobBytes.get(); }
+        public long getErrors() { return errors.get(); }
+        public long getSlowStatements() { return slowStatements.get(); }
+    }
+
+    // One lease of a connection by an operation; the counters are for its JFR event
+    private static final class Scope {
+        private final OperationStats stats;
+        private final long startNanos;
+        private final long waitMicros;
+        private final DatabaseEvent event = new DatabaseEvent();
+        private int statements;
+        private long rows;
+        private long blobBytes;
+        private int errors;
+
+        private Scope(OperationStats stats, long startNanos, long waitMicros) {
+            this.stats = stats;
+            this.startNanos = startNanos;
+            this.waitMicros = waitMicros;
+            event.begin();
+        }
+    }
+
+    // Called by ConnectionPool once a lease asked for at requestedNanos is held; opens a
+    // scope that leaseReleased() closes
+    static void leased(long requestedNanos) {
+        if (!ENABLED) {
+            return;
+        }
+        OperationStats stats = operations.computeIfAbsent(callerName(), OperationStats::new);
+        long waitMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestedNanos);
+        stats.wait.record(waitMicros);
+        scopes.get().push(new Scope(stats, requestedNanos, waitMicros));
+    }
+
+    static void leaseReleased() {
+        if (!ENABLED) {
+            return;
+        }
+        Scope scope = scopes.get().poll();
+        if (scope != null) {
+            scope.stats.latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scope.startNanos));
+            commitEvent(scope);
+        }
+    }
+
+    private static void commitEvent(Scope scope) {
+        DatabaseEvent event = scope.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = scope.stats.name;
+            event.connectionWait = scope.waitMicros;
+            event.statements = scope.statements;
+            event.rows = scope.rows;
+            event.blobBytes = scope.blobBytes;
+            event.errors = scope.errors;
+            event.commit();
+        }
+    }
+
+    /**
+     * Wrap a statement so its executions are timed and counted for the current operation.
+     * @param sql the statement's SQL for prepared statements, null for plain statements
+     *            (their SQL is taken from each execute call)
+     * @param connection the unwrapped connection, used to capture query plans
+     */
+    static <S extends Statement> S instrument(S statement, Class<S> type, String sql, Connection connection) {
+        if (!ENABLED) {
+            return statement;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new TimedStatement(statement, sql, connection)));
+    }
+
+    // Every operation seen so far, slowest p99 first
+    public static List<OperationStats> getOperations() {
+        List<OperationStats> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparingLong((OperationStats stats) -> stats.getLatency().percentile(99)).reversed());
+        return list;
+    }
+
+    public static void printReport(PrintStream out) {
+        out.printf("%-45s %8s %9s %9s %9s %9s %10s %10s %6s%n", "Operation", "Calls", "p50 ms", "p99 ms",
+                "p999 ms", "wait p99", "Rows", "BLOB KB", "Errors");
+        for (OperationStats stats : getOperations()) {
+            LatencyHistogram.Snapshot latency = stats.getLatency();
+            out.printf("%-45s %8d %9.2f %9.2f %9.2f %9.2f %10d %10d %6d%n", stats.getName(), latency.getCount(),
+                    latency.percentile(50) / 1000.0, latency.percentile(99) / 1000.0,
+                    latency.percentile(99.9) / 1000.0, stats.getConnectionWait().percentile(99) / 1000.0,
+                    stats.getRows(), stats.getBlobBytes() / 1024, stats.getErrors());
+        }
+    }
+
+    // Class.method of the first frame outside the pool, e.g. "SalesReport.getTotalRevenue"
+    private static String callerName() {
+        return STACK.walk(frames -> frames
+                .filter(frame -> frame.getDeclaringClass() != ConnectionPool.class
+                        && frame.getDeclaringClass() != QueryMonitor.class
+                        && !(frame.getDeclaringClass() == DatabaseManager.class
+                                && (frame.getMethodName().equals("reader") || frame.getMethodName().equals("writer"))))
+                .findFirst()
+                .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+                .orElse(UNSCOPED));
+    }
+
+    private static OperationStats operationOf(Scope scope) {
+        return scope != null ? scope.stats : operations.computeIfAbsent(UNSCOPED, OperationStats::new);
+    }
+
+    // One execution: finished when its result set is exhausted or closed, or right away for updates
+    private static final class Execution {
+        private final Scope scope = scopes.get().peek();
+        private final OperationStats stats = operationOf(scope);
+        private final String sql;
+        private final Connection connection;
+        private final long startNanos = System.nanoTime();
+        private long rows;
+        private long blobBytes;
+        private boolean finished;
+
+        private Execution(String sql, Connection connection) {
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        private void failed() {
+            stats.errors.increment();
+            if (scope != null) {
+                scope.errors++;
+            }
+            finish();
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long elapsed = System.nanoTime() - startNanos;
+            stats.statements.increment();
+            stats.rows.add(rows);
+            stats.blobBytes.add(blobBytes);
+            if (scope != null) {
+                scope.statements++;
+                scope.rows += rows;
+                scope.blobBytes += blobBytes;
+            }
+            if (elapsed >= SLOW_QUERY_NANOS) {
+                stats.slowStatements.increment();
+                logSlowQuery(stats.name, sql, elapsed, rows, blobBytes, connection);
+            }
+        }
+    }
+
+    private static final class TimedStatement implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private final Connection connection;
+        private Execution open;
+
+        private TimedStatement(Statement statement, String sql, Connection connection) {
+            this.statement = statement;
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return self == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(self);
+            }
+            if (name.equals("close") || name.equals("clearParameters")) {
+                finishOpen();
+            }
+            if (!name.startsWith("execute")) {
+                return call(statement, method, args);
+            }
+
+            // A new execution ends the previous one (its result set is closed by the driver)
+            finishOpen();
+            String executed = sql != null ? sql : (args != null && args.length > 0 ? String.valueOf(args[0]) : null);
+            Execution execution = new Execution(executed, connection);
+            Object result;
+            try {
+                result = call(statement, method, args);
+            } catch (Throwable e) {
+                execution.failed();
+                throw e;
+            }
+
+            if (result instanceof ResultSet rs) {
+                open = execution;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                        new CountedResultSet(rs, execution));
+            }
+            if (result instanceof Integer count) {
+                execution.rows = Math.max(0, count);
+            } else if (result instanceof Long count) {
+                execution.rows = Math.max(0, count);
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    execution.rows += Math.max(0, count);
+                }
+            }
+            execution.finish();
+            return result;
+        }
+
+        private void finishOpen() {
+            if (open != null) {
+                open.finish();
+                open = null;
+            }
+        }
+    }
+
+    private static final class CountedResultSet implements InvocationHandler {
+        private final ResultSet rs;
+        private final Execution execution;
+
+        private CountedResultSet(ResultSet rs, Execution execution) {
+            this.rs = rs;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    boolean hasRow;
+                    try {
+                        hasRow = (Boolean) call(rs, method, args);
+                    } catch (Throwable e) {
+                        execution.failed();
+                        throw e;
+                    }
+                    if (hasRow) {
+                        execution.rows++;
+                    } else {
+                        execution.finish();
+                    }
+                    return hasRow;
+                }
+                case "getBytes": {
+                    byte[] bytes = (byte[]) call(rs, method, args);
+                    if (bytes != null) {
+                        execution.blobBytes += bytes.length;
+                    }
+                    return bytes;
+                }
+                case "close":
+                    execution.finish();
+                    break;
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                default:
+                    break;
+            }
+            return call(rs, method, args);
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void logSlowQuery(String operation, String sql, long elapsedNanos, long rows, long blobBytes,
+            Connection connection) {
+        StringBuilder entry = new StringBuilder();
+        entry.append(String.format("%s %s %.1f ms, %d rows, %d BLOB bytes%n  %s", LocalDateTime.now(), operation,
+                elapsedNanos / 1e6, rows, blobBytes, sql));
+        if (CAPTURE_PLAN && sql != null && isQuery(sql)) {
+            try {
+                for (String step : IndexAdvisor.explain(connection, sql)) {
+                    entry.append(System.lineSeparator()).append("  plan: ").append(step);
+                }
+            } catch (SQLException e) {
+                entry.append(System.lineSeparator()).append("  plan unavailable: ").append(e.getMessage());
+            }
+        }
+
+        Logger log = slowQueryLog();
+        if (log != null) {
+            log.info(entry.toString());
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String start = sql.stripLeading().toUpperCase();
+        return start.startsWith("SELECT") || start.startsWith("WITH") || start.startsWith("UPDATE")
+                || start.startsWith("DELETE") || start.startsWith("INSERT");
+    }
+
+    private static synchronized Logger slowQueryLog() {
+        if (slowQueryLog == null && !slowQueryLogFailed) {
+            slowQueryLog = LogFiles.open(SLOW_QUERY_LOG, "com.example.slowqueries");
+            slowQueryLogFailed = slowQueryLog == null;
+        }
+        return slowQueryLog;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Flight recordings with the bundled restaurant.jfc configuration, which enables the
+ * application's events (database operations, FXML loads, screen navigation and image
+ * decodes) together with the JDK events needed to explain them: CPU samples, garbage
+ * collection, lock contention, thread parking and file I/O.
+ * Start the application with -Drestaurant.jfr=recording.jfr to record from startup; the
+ * file is written when the application stops. The same configuration also works with
+ * -XX:StartFlightRecording:settings=src/main/resources/com/example/restaurant.jfc
+ */
+public class Recordings {
+    private static Recording recording;
+
+    public static synchronized void startIfRequested() {
+        String file = System.getProperty("restaurant.jfr");
+        if (file == null || file.isBlank() || recording != null) {
+            return;
+        }
+        try (Reader reader = new InputStreamReader(Recordings.class.getResourceAsStream("restaurant.jfc"),
+                StandardCharsets.UTF_8)) {
+            Recording started = new Recording(Configuration.create(reader));
+            started.setName("restaurant");
+            started.setToDisk(true);
+            started.setDestination(Path.of(file));
+            // Also written if the JVM exits without stop() being called
+            started.setDumpOnExit(true);
+            started.start();
+            recording = started;
+            System.out.println("Flight recording to " + file);
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Could not start the flight recording: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Stop the recording and write its file
+    public static synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+        } catch (RuntimeException e) {
+            System.err.println("Could not write the flight recording: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
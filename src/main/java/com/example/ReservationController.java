@@ -8,7 +8,7 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.io.IOException;
 
-public class ReservationController {
+public class ReservationController implements ScreenController {
 
     @FXML
     private Label clientNameLabel;
@@ -37,10 +37,13 @@ public class ReservationController {
     private String clientName;
     private String clientNumber;
     private ObservableList<DatabaseManager.Table> availableTables;
+    private ChangeFeed.Subscription changes;
 
-    @FXML
-    public void initialize() {
-        // Initialize from App's stored client info
+    @Override
+    public void onShow() {
+        // The screen is cached: start from an empty form for App's current client
+        resetBookingForm();
+        statusLabel.setText("");
         this.clientName = App.getCurrentClientName();
         this.clientNumber = App.getCurrentClientNumber();
 
@@ -48,14 +51,59 @@ public class ReservationController {
             clientNameLabel.setText(clientName);
             checkExistingReservation();
         }
+
+        changes = ChangeFeed.subscribeOnFx(this::applyChange);
+    }
+
+    @Override
+    public void onHide() {
+        if (changes != null) {
+            changes.close();
+            changes = null;
+        }
+        availableTables = null;
+        tablesListView.getItems().clear();
+    }
+
+    // Stop offering a table another client has just booked (freed tables show on the next search)
+    private void applyChange(ChangeFeed.Change change) {
+        if (change instanceof ChangeFeed.ReservationAdded added && availableTables != null) {
+            for (DatabaseManager.Table table : availableTables) {
+                if (table.getId() == added.tableId()) {
+                    availableTables.remove(table);
+                    tablesListView.getItems().remove(tableLabel(table));
+                    break;
+                }
+            }
+        }
     }
 
-    // Set client information when navigating to this page
+    private static String tableLabel(DatabaseManager.Table table) {
+        return String.format("Table #%d (Capacity: %d)", table.getId(), table.getMaxCapacity());
+    }
+
+    // Set client information when navigating to this page (onShow already checked App's current client)
     public void setClientInfo(String name, String number) {
+        boolean sameClient = java.util.Objects.equals(name, clientName) && java.util.Objects.equals(number, clientNumber);
         this.clientName = name;
         this.clientNumber = number;
         clientNameLabel.setText(name);
-        checkExistingReservation();
+        if (!sameClient) {
+            resetBookingForm();
+            checkExistingReservation();
+        }
+    }
+
+    // Booking form shown, no reservation or table list
+    private void resetBookingForm() {
+        currentReservationBox.setVisible(false);
+        currentReservationBox.setManaged(false);
+        partySizeField.setDisable(false);
+        partySizeField.clear();
+        tablesContainer.setVisible(false);
+        tablesContainer.setManaged(false);
+        bookButton.setVisible(false);
+        bookButton.setManaged(false);
     }
 
     // Check if client already has a reservation
@@ -124,8 +172,7 @@ public class ReservationController {
             ObservableList<String> tableDisplayList = FXCollections.observableArrayList();
             for (DatabaseManager.Table table : availableTables) {
                 if (table.getMaxCapacity() >= partySize) {
-                    tableDisplayList.add(String.format("Table #%d (Capacity: %d)",
-                            table.getId(), table.getMaxCapacity()));
+                    tableDisplayList.add(tableLabel(table));
                 }
             }
 
@@ -215,16 +262,7 @@ public class ReservationController {
 
         if (success) {
             showSuccess("Reservation cancelled successfully!");
-
-            // Reset UI
-            currentReservationBox.setVisible(false);
-            currentReservationBox.setManaged(false);
-            partySizeField.setDisable(false);
-            partySizeField.clear();
-            tablesContainer.setVisible(false);
-            tablesContainer.setManaged(false);
-            bookButton.setVisible(false);
-            bookButton.setManaged(false);
+            resetBookingForm();
         } else {
             showError("Failed to cancel reservation");
         }
@@ -0,0 +1,103 @@
+package com.example;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Figures of the admin reports screen and the /api/reports endpoint.
+ * Order counts, revenue and item quantities come from the daily_sales rollup; a null
+ * date range means all time. mostOrderedItem is null when nothing was sold.
+ */
+public record SalesReport(int totalClients, int totalOrders, double totalRevenue, String mostOrderedItem,
+        int mostOrderedQuantity) {
+
+    // Best-selling item of a range and how many were sold
+    record ItemQuantity(String itemName, int quantity) {
+    }
+
+    // The lease is never read here: holding it pins one connection, which the nested leases
+    // of the queries below reuse, while each query keeps its own operation statistics
+    @SuppressWarnings("try")
+    public static SalesReport query(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        try (ConnectionPool.Lease lease = DatabaseManager.reader()) {
+            ItemQuantity mostOrdered = getMostOrderedItem(fromDate, toDate);
+            return new SalesReport(getTotalClients(), getTotalOrders(fromDate, toDate),
+                    getTotalRevenue(fromDate, toDate), mostOrdered.itemName(), mostOrdered.quantity());
+        }
+    }
+
+    // The four report queries are package-private so the benchmarks can time them one by one
+
+    static ItemQuantity getMostOrderedItem(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+             PreparedStatement pstmt = lease.connection().prepareStatement(mostOrderedItemQuery(fromDate, toDate))) {
+            bindDateFilter(pstmt, fromDate, toDate);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new ItemQuantity(rs.getString("item_name"), rs.getInt("total_quantity"))
+                        : new ItemQuantity(null, 0);
+            }
+        }
+    }
+
+    static int getTotalClients() throws SQLException {
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+             Statement stmt = lease.connection().createStatement();
+             ResultSet rs = stmt.executeQuery(TOTAL_CLIENTS)) {
+            return rs.next() ? rs.getInt("count") : 0;
+        }
+    }
+
+    static int getTotalOrders(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+             PreparedStatement pstmt = lease.connection().prepareStatement(totalOrdersQuery(fromDate, toDate))) {
+            bindDateFilter(pstmt, fromDate, toDate);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        }
+    }
+
+    static double getTotalRevenue(LocalDate fromDate, LocalDate toDate) throws SQLException {
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+             PreparedStatement pstmt = lease.connection().prepareStatement(totalRevenueQuery(fromDate, toDate))) {
+            bindDateFilter(pstmt, fromDate, toDate);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getDouble("revenue") : 0.0;
+            }
+        }
+    }
+
+    // Statements of the report queries for a date range (null dates for all time)
+
+    static final String TOTAL_CLIENTS = "SELECT COUNT(*) as count FROM client";
+
+    static String mostOrderedItemQuery(LocalDate fromDate, LocalDate toDate) {
+        return "SELECT item_name, SUM(quantity) as total_quantity " +
+                "FROM daily_sales" + dateFilter(fromDate, toDate) +
+                " GROUP BY item_name ORDER BY total_quantity DESC LIMIT 1";
+    }
+
+    static String totalOrdersQuery(LocalDate fromDate, LocalDate toDate) {
+        return "SELECT COALESCE(SUM(order_count), 0) as count FROM daily_sales" + dateFilter(fromDate, toDate);
+    }
+
+    static String totalRevenueQuery(LocalDate fromDate, LocalDate toDate) {
+        return "SELECT SUM(revenue) as revenue FROM daily_sales" + dateFilter(fromDate, toDate);
+    }
+
+    // Range filter on the daily_sales primary key; empty when no range is selected
+    private static String dateFilter(LocalDate fromDate, LocalDate toDate) {
+        return (fromDate != null && toDate != null) ? " WHERE order_day BETWEEN ? AND ?" : "";
+    }
+
+    private static void bindDateFilter(PreparedStatement pstmt, LocalDate fromDate, LocalDate toDate)
+            throws SQLException {
+        if (fromDate != null && toDate != null) {
+            pstmt.setLong(1, DatabaseManager.toOrderDay(fromDate));
+            pstmt.setLong(2, DatabaseManager.toOrderDay(toDate));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Pre-aggregated daily sales per menu item, kept in the daily_sales table.
+ * DatabaseManager updates it in the same transaction as every order insert and status
+ * change, so the reports read a few rollup rows instead of the whole order history.
+ * Run main() to rebuild the rollup from the orders table if it ever drifts.
+ */
+public class SalesRollup {
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS daily_sales (" +
+            "order_day INTEGER NOT NULL, " +
+            "item_name TEXT NOT NULL, " +
+            "quantity INTEGER NOT NULL DEFAULT 0, " +
+            "revenue REAL NOT NULL DEFAULT 0, " +
+            "order_count INTEGER NOT NULL DEFAULT 0, " +
+            "cancelled_count INTEGER NOT NULL DEFAULT 0, " +
+            "PRIMARY KEY(order_day, item_name)" +
+            ") WITHOUT ROWID";
+
+    // Add deltas to one (day, item) row, creating it on first use
+    static final String UPSERT = "INSERT INTO daily_sales " +
+            "(order_day, item_name, quantity, revenue, order_count, cancelled_count) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(order_day, item_name) DO UPDATE SET " +
+            "quantity = quantity + excluded.quantity, " +
+            "revenue = revenue + excluded.revenue, " +
+            "order_count = order_count + excluded.order_count, " +
+            "cancelled_count = cancelled_count + excluded.cancelled_count";
+
+    /**
+     * Record newly inserted order lines of one day. Call inside the insert's transaction.
+     */
+    public static void recordOrderLines(Connection connection, long orderDay, List<OrderItem> lines)
+            throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(UPSERT)) {
+            for (OrderItem line : lines) {
+                bindDelta(pstmt, orderDay, line.getItemName(), line.getQuantity(),
+                        line.getQuantity() * line.getPrice(), 1, 0);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    static final String ORDER_LINES_WITH_DAY =
+            "SELECT order_day, item_name, status FROM orders WHERE order_id = ? AND order_day IS NOT NULL";
+
+    /**
+     * Adjust cancelled counts for an order that is about to change status.
+     * Must run before the UPDATE of orders.status, inside the same transaction.
+     */
+    public static void applyStatusChange(Connection connection, int orderId, String newStatus) throws SQLException {
+        boolean willBeCancelled = Order.STATUS_CANCELLED.equals(newStatus);
+
+        try (PreparedStatement select = connection.prepareStatement(ORDER_LINES_WITH_DAY);
+                PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+            select.setInt(1, orderId);
+            boolean pending = false;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    boolean wasCancelled = Order.STATUS_CANCELLED.equals(rs.getString("status"));
+                    int delta = (willBeCancelled ? 1 : 0) - (wasCancelled ? 1 : 0);
+                    if (delta != 0) {
+                        bindDelta(upsert, rs.getLong("order_day"), rs.getString("item_name"), 0, 0, 0, delta);
+                        upsert.addBatch();
+                        pending = true;
+                    }
+                }
+            }
+            if (pending) {
+                upsert.executeBatch();
+            }
+        }
+    }
+
+    private static void bindDelta(PreparedStatement pstmt, long orderDay, String itemName, int quantity,
+            double revenue, int orderCount, int cancelledCount) throws SQLException {
+        pstmt.setLong(1, orderDay);
+        pstmt.setString(2, itemName);
+        pstmt.setInt(3, quantity);
+        pstmt.setDouble(4, revenue);
+        pstmt.setInt(5, orderCount);
+        pstmt.setInt(6, cancelledCount);
+    }
+
+    /**
+     * Recompute the whole rollup from the orders table, joining the caller's transaction if one is open.
+     * @return number of rollup rows written
+     */
+    public static int rebuild(Connection connection) throws SQLException {
+        return DatabaseManager.inTransaction(connection, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM daily_sales");
+                return stmt.executeUpdate("INSERT INTO daily_sales " +
+                        "(order_day, item_name, quantity, revenue, order_count, cancelled_count) " +
+                        "SELECT order_day, item_name, SUM(quantity), SUM(quantity * price), COUNT(*), " +
+                        "SUM(CASE WHEN status = '" + Order.STATUS_CANCELLED + "' THEN 1 ELSE 0 END) " +
+                        "FROM orders WHERE order_day IS NOT NULL GROUP BY order_day, item_name");
+            }
+        });
+    }
+
+    // True when orders exist but the rollup has never been filled (first start after upgrade)
+    static boolean needsInitialBuild(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT EXISTS(SELECT 1 FROM orders WHERE order_day IS NOT NULL) " +
+                                "AND NOT EXISTS(SELECT 1 FROM daily_sales)")) {
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    // Rebuild command: repairs daily_sales from the raw orders
+    public static void main(String[] args) {
+        DatabaseManager.initialize();
+
+        try (ConnectionPool.Lease lease = DatabaseManager.writer()) {
+            int rows = rebuild(lease.connection());
+            System.out.println("Rebuilt daily_sales rollup: " + rows + " rows");
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding daily_sales rollup: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        DatabaseManager.close();
+    }
+}
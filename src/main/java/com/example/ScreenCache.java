@@ -0,0 +1,128 @@
+package com.example;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Parsed screens for App's navigation: each FXML is loaded once, and later visits show
+ * the same root node and controller again instead of re-parsing the file, rebuilding
+ * the node graph and re-applying styles.css. Controllers refresh their data in
+ * ScreenController.onShow().
+ * After a screen is shown, the screens usually opened from it are loaded on a
+ * background thread, so the first visit to them is fast too. A navigation that arrives
+ * while its screen is still being prewarmed waits for that load instead of starting a
+ * second one.
+ *
+ * Settings (system properties):
+ *   restaurant.ui.cacheScreens=false   parse the FXML on every navigation (no prewarming)
+ */
+public class ScreenCache {
+    private static final boolean ENABLED = !"false".equals(System.getProperty("restaurant.ui.cacheScreens"));
+
+    // Screens a cashier or admin usually opens next from each screen
+    private static final Map<String, List<String>> NEXT_SCREENS = Map.of(
+            "main", List.of("client", "admin"),
+            "client", List.of("menu", "orders", "reservation"),
+            "admin", List.of("admin_orders", "admin_reports", "admin_clients", "admin_menu"));
+
+    private static final ExecutorService PREWARM = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "screen-prewarm");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static final Map<String, CompletableFuture<FXMLLoader>> screens = new ConcurrentHashMap<>();
+
+    /**
+     * The loader of a screen, holding its root and controller. Loads the FXML on this
+     * thread unless the screen is cached or already being prewarmed.
+     */
+    static FXMLLoader get(String fxml) throws IOException {
+        if (!ENABLED) {
+            return load(fxml);
+        }
+        CompletableFuture<FXMLLoader> screen = screens.get(fxml);
+        if (screen != null) {
+            try {
+                return screen.join();
+            } catch (CompletionException e) {
+                // The prewarm failed; load here and report the error to the caller
+                screens.remove(fxml, screen);
+            }
+        }
+        FXMLLoader loader = load(fxml);
+        screens.put(fxml, CompletableFuture.completedFuture(loader));
+        return loader;
+    }
+
+    // True if the screen can be shown without parsing its FXML
+    static boolean isLoaded(String fxml) {
+        CompletableFuture<FXMLLoader> screen = screens.get(fxml);
+        return screen != null && screen.isDone() && !screen.isCompletedExceptionally();
+    }
+
+    /**
+     * Load the screens usually opened from fxml on the background thread. Screens
+     * already cached or being loaded are skipped.
+     */
+    static void prewarmNext(String fxml) {
+        if (!ENABLED) {
+            return;
+        }
+        for (String next : NEXT_SCREENS.getOrDefault(fxml, List.of())) {
+            screens.computeIfAbsent(next, key -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load(key);
+                } catch (IOException e) {
+                    System.err.println("Error prewarming screen " + key + ": " + e.getMessage());
+                    throw new UncheckedIOException(e);
+                }
+            }, PREWARM));
+        }
+    }
+
+    // Forget every cached screen (the next visit to each parses its FXML again)
+    static void clear() {
+        screens.clear();
+    }
+
+    // Parse an FXML file; runs on the FX thread or the prewarm thread
+    private static FXMLLoader load(String fxml) throws IOException {
+        FxmlLoadEvent event = new FxmlLoadEvent();
+        event.begin();
+        FXMLLoader fxmlLoader = new FXMLLoader(App.class.getResource(fxml + ".fxml"));
+        Parent root = fxmlLoader.load();
+        event.end();
+        if (event.shouldCommit()) {
+            event.fxml = fxml;
+            event.controller = fxmlLoader.getController() != null ? fxmlLoader.getController().getClass() : null;
+            event.nodeCount = countNodes(root);
+            event.prewarmed = !Platform.isFxApplicationThread();
+            event.commit();
+        }
+        return fxmlLoader;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example;
+
+/**
+ * Lifecycle of a screen's controller under App's navigation.
+ * Screens are cached (see ScreenCache), so a controller is created once and shown many
+ * times. initialize() only builds the UI: it may run on a background thread when the
+ * screen is prewarmed, so it must not load data, subscribe to ChangeFeed or show
+ * dialogs. onShow() loads or refreshes the screen's data each time it is displayed, and
+ * onHide() drops what only matters while it is visible (subscriptions, one client's
+ * data, typed-in passwords). Both run on the FX thread.
+ */
+public interface ScreenController {
+
+    // Called after the screen became the scene root
+    default void onShow() {
+    }
+
+    // Called before another screen replaces this one
+    default void onHide() {
+    }
+}
@@ -0,0 +1,96 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique ids from a named counter in the sequences table.
+ * Ids are reserved from the database in blocks and then handed out from memory with a
+ * single atomic increment, so most calls never touch SQLite. Ids left in a block when
+ * the application stops are skipped: ids are unique and increasing, but may have gaps.
+ */
+public class SequenceAllocator {
+
+    static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS sequences (" +
+            "name TEXT PRIMARY KEY, " +
+            "value INTEGER NOT NULL" +
+            ")";
+
+    // Range of ids [next, limit] reserved in the database for this process
+    private record Block(AtomicLong next, long limit) {
+    }
+
+    private final ConnectionPool pool;
+    private final String name;
+    private final int blockSize;
+    private volatile Block block = new Block(new AtomicLong(1), 0);
+
+    public SequenceAllocator(ConnectionPool pool, String name, int blockSize) {
+        this.pool = pool;
+        this.name = name;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Make sure the counter exists and is at least the highest id already in use.
+     * @param maxInUseQuery query returning the current highest id, e.g. SELECT MAX(...)
+     */
+    public static void seed(Connection connection, String name, String maxInUseQuery) throws SQLException {
+        String insert = "INSERT OR IGNORE INTO sequences (name, value) VALUES (?, 0)";
+        String raise = "UPDATE sequences SET value = MAX(value, COALESCE((" + maxInUseQuery + "), 0)) WHERE name = ?";
+
+        try (PreparedStatement insertStmt = connection.prepareStatement(insert);
+                PreparedStatement raiseStmt = connection.prepareStatement(raise)) {
+            insertStmt.setString(1, name);
+            insertStmt.executeUpdate();
+            raiseStmt.setString(1, name);
+            raiseStmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Next id. Lock-free while the current block lasts; refilling a block takes the
+     * writer connection, which also serializes refills between threads.
+     */
+    public long next() throws SQLException {
+        while (true) {
+            Block current = block;
+            long id = current.next().getAndIncrement();
+            if (id <= current.limit()) {
+                return id;
+            }
+
+            try (ConnectionPool.Lease lease = pool.writer()) {
+                // Another thread may have refilled while we waited for the writer
+                if (block == current) {
+                    block = reserveBlock(lease.connection());
+                }
+            }
+        }
+    }
+
+    static final String RESERVE_BLOCK = "UPDATE sequences SET value = value + ? WHERE name = ?";
+    static final String SEQUENCE_VALUE = "SELECT value FROM sequences WHERE name = ?";
+
+    private Block reserveBlock(Connection connection) throws SQLException {
+        long high = DatabaseManager.inTransaction(connection, conn -> {
+            try (PreparedStatement updateStmt = conn.prepareStatement(RESERVE_BLOCK);
+                    PreparedStatement selectStmt = conn.prepareStatement(SEQUENCE_VALUE)) {
+                updateStmt.setInt(1, blockSize);
+                updateStmt.setString(2, name);
+                if (updateStmt.executeUpdate() == 0) {
+                    throw new SQLException("Sequence '" + name + "' has not been seeded");
+                }
+                selectStmt.setString(1, name);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        });
+        return new Block(new AtomicLong(high - blockSize + 1), high);
+    }
+}
@@ -25,8 +25,8 @@ public class ShowDatabaseData {
     private static void showClientTable() {
         String query = "SELECT id, name, number FROM client ORDER BY id";
 
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-                Statement stmt = conn.createStatement();
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+                Statement stmt = lease.connection().createStatement();
                 ResultSet rs = stmt.executeQuery(query)) {
 
             int count = 0;
@@ -56,8 +56,8 @@ public class ShowDatabaseData {
     private static void showAdminTable() {
         String query = "SELECT admin_id, admin_code, admin_password FROM admin ORDER BY admin_id";
 
-        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:restaurant.db");
-                Statement stmt = conn.createStatement();
+        try (ConnectionPool.Lease lease = DatabaseManager.reader();
+                Statement stmt = lease.connection().createStatement();
                 ResultSet rs = stmt.executeQuery(query)) {
 
             int count = 0;
@@ -0,0 +1,458 @@
+package com.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Soak test: many simulated terminals replay a Workload against DatabaseManager or the
+ * JSON API, with a report of throughput, latency percentiles and errors every interval.
+ *
+ * Run with: java -cp ... com.example.SoakTest [key=value ...]
+ *
+ *   target=db|http    call DatabaseManager directly, or ApiServer over HTTP (default db)
+ *   url=              API base URL in http mode; without it an ApiServer is started in-process
+ *                     (the terminal token, if any, is taken from -Drestaurant.api.token)
+ *   db=               database file (default: a new seeded temp file; never restaurant.db)
+ *   terminals=32      simulated terminals
+ *   rate=100          operations per second over all terminals
+ *   rush=3            rate multiplier during a rush (1 = steady rate)
+ *   rushEvery=600     seconds between rush starts; a rush lasts a quarter of that
+ *   duration=600      seconds to run (0 = until the process is stopped)
+ *   report=60         seconds between reports
+ *   seed=42 clients=2000 menuItems=40 skew=1.1 maxLines=5   workload shape (Workload.Config)
+ *
+ * Terminals run open-loop: every operation gets an intended start time from a Poisson
+ * arrival process and its latency is measured from that time, so a stalled system shows
+ * up as latency instead of as a lower request rate. Reservations refused because the
+ * table or client is already booked count as rejected, not as errors.
+ * Exits with status 1 if any operation failed.
+ */
+public class SoakTest {
+    private static final int LOGGED_ERRORS = 20;
+
+    enum Outcome { OK, REJECTED, ERROR, SKIPPED }
+
+    // The system under test
+    interface Target {
+        List<MenuItem> menu() throws Exception;
+
+        Outcome run(Workload.Operation operation, Workload workload) throws Exception;
+
+        default void close() {
+        }
+    }
+
+    // Counters of one operation kind
+    private static final class Stats {
+        final LatencyHistogram interval = new LatencyHistogram();
+        final LatencyHistogram total = new LatencyHistogram();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        long reportedRejected;
+        long reportedErrors;
+    }
+
+    private static final Map<Workload.Kind, Stats> stats = new EnumMap<>(Workload.Kind.class);
+    private static final AtomicInteger loggedErrors = new AtomicInteger();
+    private static volatile boolean stopping;
+    private static volatile boolean interrupted;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int terminals = Integer.parseInt(options.getOrDefault("terminals", "32"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        double rush = Double.parseDouble(options.getOrDefault("rush", "3"));
+        long rushEverySeconds = Long.parseLong(options.getOrDefault("rushEvery", "600"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "600"));
+        long reportSeconds = Long.parseLong(options.getOrDefault("report", "60"));
+        Workload.Config defaults = Workload.Config.defaults();
+        Workload.Config config = new Workload.Config(
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(defaults.seed()))),
+                Integer.parseInt(options.getOrDefault("clients", String.valueOf(defaults.clients()))),
+                Integer.parseInt(options.getOrDefault("menuItems", String.valueOf(defaults.menuItems()))),
+                Double.parseDouble(options.getOrDefault("skew", String.valueOf(defaults.skew()))),
+                Integer.parseInt(options.getOrDefault("maxLines", String.valueOf(defaults.maxLines()))),
+                defaults.tables(), defaults.mix());
+
+        for (Workload.Kind kind : Workload.Kind.values()) {
+            stats.put(kind, new Stats());
+        }
+
+        Target target = openTarget(options, config);
+        Workload workload = new Workload(config, target.menu());
+        System.out.println("=== Soak Test ===");
+        System.out.println(terminals + " terminals, " + rate + " ops/s (x" + rush + " during rushes), "
+                + (durationSeconds > 0 ? durationSeconds + " s" : "until stopped") + "\n");
+
+        // DatabaseManager logs every order and refused reservation; keep the streams for the reports
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+
+        long startNanos = System.nanoTime();
+        long endNanos = durationSeconds > 0 ? startNanos + TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < terminals; i++) {
+            SplittableRandom random = new SplittableRandom(config.seed() + i);
+            threads.add(Thread.ofPlatform().name("terminal-" + i).daemon().start(() -> runTerminal(target, workload,
+                    err, random, rate / terminals, rush, rushEverySeconds, startNanos, endNanos)));
+        }
+        // Ctrl+C ends the run early, still with the final report
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            interrupted = true;
+            stopping = true;
+            LockSupport.unpark(mainThread);
+            try {
+                mainThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        long nextReport = startNanos;
+        while (!stopping && System.nanoTime() < endNanos) {
+            nextReport += TimeUnit.SECONDS.toNanos(reportSeconds);
+            long deadline = Math.min(nextReport, endNanos);
+            while (!stopping && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(deadline - System.nanoTime());
+            }
+            if (System.nanoTime() >= nextReport) {
+                report(out, "Last " + reportSeconds + " s", System.nanoTime() - startNanos,
+                        TimeUnit.SECONDS.toNanos(reportSeconds), false);
+            }
+        }
+        stopping = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long elapsed = System.nanoTime() - startNanos;
+        long errors = report(out, "Whole run", elapsed, elapsed, true);
+        if (!(target instanceof HttpTarget) || options.get("url") == null) {
+            out.println();
+            QueryMonitor.printReport(out);
+        }
+        target.close();
+        DatabaseManager.close();
+        System.setOut(out);
+        System.setErr(err);
+        // System.exit would block inside a running shutdown hook
+        if (!interrupted) {
+            System.exit(errors == 0 ? 0 : 1);
+        }
+    }
+
+    private static void runTerminal(Target target, Workload workload, PrintStream err, SplittableRandom random,
+            double rate, double rush, long rushEverySeconds, long startNanos, long endNanos) {
+        long intended = startNanos;
+        while (!stopping) {
+            // Exponential gaps give Poisson arrivals at the current rate
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(intended - startNanos);
+            boolean inRush = rushEverySeconds > 0 && elapsedSeconds % rushEverySeconds < rushEverySeconds / 4;
+            double currentRate = inRush ? rate * rush : rate;
+            intended += (long) (-Math.log(1 - random.nextDouble()) / currentRate * 1e9);
+            if (intended >= endNanos) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Workload.Operation operation = workload.next(random);
+            Outcome outcome;
+            try {
+                outcome = target.run(operation, workload);
+            } catch (Exception e) {
+                outcome = Outcome.ERROR;
+                if (loggedErrors.incrementAndGet() <= LOGGED_ERRORS) {
+                    err.println(operation.kind() + " failed: " + e);
+                }
+            }
+            if (outcome == Outcome.SKIPPED) {
+                continue;
+            }
+
+            Stats kindStats = stats.get(operation.kind());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+            kindStats.interval.record(micros);
+            kindStats.total.record(micros);
+            if (outcome == Outcome.REJECTED) {
+                kindStats.rejected.increment();
+            } else if (outcome == Outcome.ERROR) {
+                kindStats.errors.increment();
+            }
+        }
+    }
+
+    // Print one report; returns the error count of the reported period
+    private static long report(PrintStream out, String title, long elapsedNanos, long periodNanos, boolean total) {
+        double seconds = periodNanos / 1e9;
+        long operations = 0;
+        long errors = 0;
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<Workload.Kind, Stats> entry : stats.entrySet()) {
+            Stats kindStats = entry.getValue();
+            LatencyHistogram.Snapshot snapshot = total ? kindStats.total.snapshot()
+                    : kindStats.interval.snapshotAndReset();
+            long rejected = kindStats.rejected.sum();
+            long failed = kindStats.errors.sum();
+            if (!total) {
+                long rejectedNow = rejected;
+                long failedNow = failed;
+                rejected -= kindStats.reportedRejected;
+                failed -= kindStats.reportedErrors;
+                kindStats.reportedRejected = rejectedNow;
+                kindStats.reportedErrors = failedNow;
+            }
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            operations += snapshot.getCount();
+            errors += failed;
+            lines.append(String.format("  %-20s %8d  p50 %8s  p99 %8s  p999 %8s  max %8s  rejected %d  errors %d%n",
+                    entry.getKey(), snapshot.getCount(), millis(snapshot.percentile(50)),
+                    millis(snapshot.percentile(99)), millis(snapshot.percentile(99.9)), millis(snapshot.max()),
+                    rejected, failed));
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        out.printf("[%s] %s: %d ops, %.1f ops/s, %d errors, heap %d MB, WAL %d KB%n",
+                formatElapsed(elapsedNanos), title, operations, operations / seconds, errors,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024),
+                DatabaseManager.getWalSizeBytes() / 1024);
+        out.print(lines);
+        out.flush();
+        return errors;
+    }
+
+    private static Target openTarget(Map<String, String> options, Workload.Config config) throws Exception {
+        String targetName = options.getOrDefault("target", "db");
+        String url = options.get("url");
+        if (targetName.equals("http") && url != null) {
+            return new HttpTarget(url);
+        }
+
+        String databaseFile = options.get("db");
+        if (databaseFile == null) {
+            databaseFile = Files.createTempFile("restaurant-soak", ".db").toString();
+            System.out.println("Using a new database: " + databaseFile);
+        }
+        DatabaseManager.initialize(databaseFile);
+        Workload.seed(config);
+        // The kitchen queue follows every order, as it does in the app and the server
+        OrderService.start();
+
+        switch (targetName) {
+            case "db":
+                return new DatabaseTarget();
+            case "http": {
+                // In-process server on a free port, serving the same database
+                ApiServer server = new ApiServer(0);
+                server.start();
+                return new HttpTarget("http://localhost:" + server.getPort()) {
+                    @Override
+                    public void close() {
+                        server.stop(0);
+                    }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown target " + targetName + " (use db or http)");
+        }
+    }
+
+    // Calls DatabaseManager in this process, as the screens do
+    private static final class DatabaseTarget implements Target {
+        @Override
+        public List<MenuItem> menu() {
+            return DatabaseManager.getAllMenuItems();
+        }
+
+        @Override
+        public Outcome run(Workload.Operation op, Workload workload) {
+            Workload.Guest guest = op.guest();
+            switch (op.kind()) {
+                case BROWSE_MENU:
+                    return DatabaseManager.getAllMenuItems().isEmpty() ? Outcome.ERROR : Outcome.OK;
+                case PLACE_ORDER: {
+                    int orderId = DatabaseManager.placeOrderReturningId(guest.name(), guest.number(), op.lines());
+                    if (orderId < 0) {
+                        return Outcome.ERROR;
+                    }
+                    workload.orderPlaced(orderId);
+                    return Outcome.OK;
+                }
+                case VIEW_ORDER:
+                    if (op.orderId() < 0) {
+                        return Outcome.SKIPPED;
+                    }
+                    return DatabaseManager.getOrdersByOrderId(op.orderId()).isEmpty() ? Outcome.ERROR : Outcome.OK;
+                case COMPLETE_ORDER:
+                    if (op.orderId() < 0) {
+                        return Outcome.SKIPPED;
+                    }
+                    return DatabaseManager.updateOrderStatus(op.orderId(), Order.STATUS_COMPLETED)
+                            ? Outcome.OK : Outcome.ERROR;
+                case LIST_ORDERS:
+                    DatabaseManager.getOrderSummaryPage(new PageRequest<>("order_id", true, Order.STATUS_PENDING,
+                            null, true, PagedTable.PAGE_SIZE));
+                    return Outcome.OK;
+                case RESERVE:
+                    if (!DatabaseManager.addReservation(guest.name(), guest.number(), op.tableId(), op.partySize())) {
+                        return Outcome.REJECTED;
+                    }
+                    workload.reservationHeld(guest);
+                    return Outcome.OK;
+                case CANCEL_RESERVATION:
+                    return DatabaseManager.cancelClientReservation(guest.name(), guest.number())
+                            ? Outcome.OK : Outcome.ERROR;
+                default:
+                    throw new IllegalStateException("Unknown operation " + op.kind());
+            }
+        }
+    }
+
+    // Calls the JSON API, as a terminal of a multi-terminal install does
+    private static class HttpTarget implements Target {
+        private final String baseUrl;
+        private final String token = System.getProperty("restaurant.api.token");
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        HttpTarget(String baseUrl) {
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        }
+
+        @Override
+        public List<MenuItem> menu() throws Exception {
+            List<MenuItem> menu = new ArrayList<>();
+            for (Object element : (List<?>) Json.parse(send("GET", "/api/menu", null).body())) {
+                Map<?, ?> item = (Map<?, ?>) element;
+                menu.add(new MenuItem(((Double) item.get("id")).intValue(), (String) item.get("name"),
+                        (Double) item.get("price"), (Boolean) item.get("available"), null, 0));
+            }
+            return menu;
+        }
+
+        @Override
+        public Outcome run(Workload.Operation op, Workload workload) throws Exception {
+            Workload.Guest guest = op.guest();
+            switch (op.kind()) {
+                case BROWSE_MENU:
+                    return outcome(send("GET", "/api/menu", null));
+                case PLACE_ORDER: {
+                    List<Object> lines = new ArrayList<>();
+                    for (OrderItem line : op.lines()) {
+                        lines.add(Json.object("itemName", line.getItemName(), "quantity", line.getQuantity()));
+                    }
+                    HttpResponse<String> response = send("POST", "/api/orders", Json.object(
+                            "clientName", guest.name(), "clientNumber", guest.number(), "lines", lines));
+                    if (response.statusCode() != 201) {
+                        return outcome(response);
+                    }
+                    Map<?, ?> body = (Map<?, ?>) Json.parse(response.body());
+                    workload.orderPlaced(((Double) body.get("orderId")).intValue());
+                    return Outcome.OK;
+                }
+                case VIEW_ORDER:
+                    if (op.orderId() < 0) {
+                        return Outcome.SKIPPED;
+                    }
+                    return outcome(send("GET", "/api/orders/" + op.orderId(), null));
+                case COMPLETE_ORDER:
+                    if (op.orderId() < 0) {
+                        return Outcome.SKIPPED;
+                    }
+                    return outcome(send("PUT", "/api/orders/" + op.orderId() + "/status",
+                            Json.object("status", Order.STATUS_COMPLETED)));
+                case LIST_ORDERS:
+                    return outcome(send("GET", "/api/orders?status=" + Order.STATUS_PENDING
+                            + "&limit=" + PagedTable.PAGE_SIZE, null));
+                case RESERVE: {
+                    Outcome outcome = outcome(send("POST", "/api/reservations", Json.object(
+                            "clientName", guest.name(), "clientNumber", guest.number(),
+                            "tableId", op.tableId(), "partySize", op.partySize())));
+                    if (outcome == Outcome.OK) {
+                        workload.reservationHeld(guest);
+                    }
+                    return outcome;
+                }
+                case CANCEL_RESERVATION:
+                    return outcome(send("DELETE", "/api/reservations?clientName=" + encode(guest.name())
+                            + "&clientNumber=" + encode(guest.number()), null));
+                default:
+                    throw new IllegalStateException("Unknown operation " + op.kind());
+            }
+        }
+
+        private HttpResponse<String> send(String method, String path, Object body) throws Exception {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30));
+            if (token != null && !token.isBlank()) {
+                request.header("Authorization", "Bearer " + token.trim());
+            }
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofString(Json.write(body)));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        // 409 is the API's "already booked"
+        private static Outcome outcome(HttpResponse<String> response) {
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                return Outcome.OK;
+            }
+            return status == 409 ? Outcome.REJECTED : Outcome.ERROR;
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    // key=value arguments
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f ms", micros / 1000.0);
+    }
+
+    private static String formatElapsed(long nanos) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+}
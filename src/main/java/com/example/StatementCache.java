@@ -0,0 +1,227 @@
+package com.example;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements keyed by SQL text, so SQLite compiles
+ * each query once per connection instead of on every call.
+ * ConnectionPool wraps every connection it opens: prepareStatement(sql) hands out a
+ * cached statement when one is idle, and closing that statement resets it and puts it
+ * back instead of finalizing it. Statements in use are taken out of the cache, so a
+ * nested call on the same connection preparing the same SQL gets its own statement.
+ * Idle statements are kept in LRU order and the least recently used one is closed
+ * once the cache is full.
+ * Statements handed out here (cached or created) are timed by QueryMonitor.
+ */
+public class StatementCache {
+
+    /**
+     * Hit/miss counters shared by every cache of one pool.
+     */
+    public static final class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getEvictions() {
+            return evictions.get();
+        }
+
+        // Share of prepareStatement calls served from the cache, 0 before the first call
+        public double getHitRatio() {
+            long total = hits.get() + misses.get();
+            return total == 0 ? 0 : (double) hits.get() / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses, %d evictions (%.0f%% hits)",
+                    getHits(), getMisses(), getEvictions(), getHitRatio() * 100);
+        }
+    }
+
+    private final Connection connection;
+    private final Connection proxy;
+    private final Stats stats;
+    private final Map<String, PreparedStatement> idle; // guarded by this
+    private boolean closed; // guarded by this
+
+    private StatementCache(Connection connection, int capacity, Stats stats) {
+        this.connection = connection;
+        this.stats = stats;
+        this.idle = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                stats.evictions.incrementAndGet();
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+        this.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, this::invokeConnection);
+    }
+
+    /**
+     * Wrap a connection so prepareStatement(String) goes through a cache of at most
+     * capacity idle statements. Closing the returned connection closes the cache too.
+     */
+    public static Connection wrap(Connection connection, int capacity, Stats stats) {
+        return new StatementCache(connection, capacity, stats).proxy;
+    }
+
+    private Object invokeConnection(Object self, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                if (args.length == 1) {
+                    return QueryMonitor.instrument(borrow((String) args[0]), PreparedStatement.class,
+                            (String) args[0], connection);
+                }
+                break;
+            case "createStatement":
+                if (args == null) {
+                    return QueryMonitor.instrument(connection.createStatement(), Statement.class, null, connection);
+                }
+                break;
+            case "close":
+                closeAll();
+                break;
+            case "equals":
+                return self == args[0];
+            case "hashCode":
+                return System.identityHashCode(self);
+            default:
+                break;
+        }
+        return invoke(connection, method, args);
+    }
+
+    private PreparedStatement borrow(String sql) throws SQLException {
+        PreparedStatement statement;
+        synchronized (this) {
+            statement = idle.remove(sql);
+        }
+        if (statement != null) {
+            stats.hits.incrementAndGet();
+        } else {
+            stats.misses.incrementAndGet();
+            statement = connection.prepareStatement(sql);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new Borrowed(sql, statement));
+    }
+
+    // Reset a statement the caller has closed and keep it for the next caller
+    private void giveBack(String sql, PreparedStatement statement) {
+        try {
+            // An unclosed result set would keep the statement (and its read snapshot) open
+            ResultSet rs = statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException e) {
+            closeQuietly(statement);
+            return;
+        }
+
+        synchronized (this) {
+            // Closed connection, or a nested caller already returned the same SQL
+            if (closed || idle.containsKey(sql)) {
+                closeQuietly(statement);
+                return;
+            }
+            idle.put(sql, statement);
+        }
+    }
+
+    private void closeAll() {
+        List<PreparedStatement> statements;
+        synchronized (this) {
+            closed = true;
+            statements = new ArrayList<>(idle.values());
+            idle.clear();
+        }
+        for (PreparedStatement statement : statements) {
+            closeQuietly(statement);
+        }
+    }
+
+    // A cached statement lent to one caller until it calls close()
+    private final class Borrowed implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement statement;
+        private boolean returned;
+
+        private Borrowed(String sql, PreparedStatement statement) {
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object self, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(sql, statement);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || statement.isClosed();
+                case "getConnection":
+                    return proxy;
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Statement is closed");
+            }
+            return StatementCache.invoke(statement, method, args);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQLite storage settings applied to restaurant.db.
+ * The profile is chosen with -Drestaurant.db.profile=BALANCED|DURABLE|FAST (default BALANCED).
+ */
+public enum StorageProfile {
+    // WAL + NORMAL: commits do not fsync, checkpoints do. Safe against app crashes,
+    // may lose the last few commits on power loss.
+    BALANCED("NORMAL", 16 * 1024, 64L * 1024 * 1024, "MEMORY", 4000),
+    // WAL + FULL: every commit fsyncs the WAL
+    DURABLE("FULL", 8 * 1024, 0, "DEFAULT", 1000),
+    // No fsync at all; for load tests and throwaway databases only
+    FAST("OFF", 64 * 1024, 256L * 1024 * 1024, "MEMORY", 10000);
+
+    public static final String PROPERTY = "restaurant.db.profile";
+
+    private final String synchronous;
+    private final int cacheSizeKb;
+    private final long mmapSizeBytes;
+    private final String tempStore;
+    private final int walAutocheckpointPages;
+
+    StorageProfile(String synchronous, int cacheSizeKb, long mmapSizeBytes, String tempStore,
+            int walAutocheckpointPages) {
+        this.synchronous = synchronous;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.tempStore = tempStore;
+        this.walAutocheckpointPages = walAutocheckpointPages;
+    }
+
+    // Read the profile from the system property, falling back to BALANCED
+    public static StorageProfile fromSystemProperty() {
+        String name = System.getProperty(PROPERTY, BALANCED.name());
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown storage profile '" + name + "', using " + BALANCED);
+            return BALANCED;
+        }
+    }
+
+    /**
+     * Per-connection pragmas. These are not stored in the database file, so every
+     * pooled connection runs them when it is opened.
+     */
+    public List<String> connectionPragmas() {
+        return List.of(
+                "PRAGMA synchronous = " + synchronous,
+                // Negative cache_size is in KiB rather than pages
+                "PRAGMA cache_size = -" + cacheSizeKb,
+                "PRAGMA mmap_size = " + mmapSizeBytes,
+                "PRAGMA temp_store = " + tempStore,
+                "PRAGMA wal_autocheckpoint = " + walAutocheckpointPages);
+    }
+
+    /**
+     * Switch the database to WAL journaling. journal_mode is persistent, so this only
+     * has to run once on the writer connection at startup.
+     */
+    public void enableWriteAheadLog(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = WAL")) {
+            String mode = rs.next() ? rs.getString(1) : "unknown";
+            if (!"wal".equalsIgnoreCase(mode)) {
+                System.err.println("Could not enable WAL journaling, database is in " + mode + " mode");
+            } else {
+                System.out.println("Storage profile " + name() + " applied (journal_mode=WAL, synchronous="
+                        + synchronous + ")");
+            }
+        }
+    }
+}
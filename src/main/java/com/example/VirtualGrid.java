@@ -0,0 +1,119 @@
+package com.example;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Grid of cards that only creates the cards currently on screen.
+ * Items are laid out in rows of as many cards as fit the width; each row is a
+ * ListView cell, so JavaFX creates cells for the visible rows only and reuses them
+ * while scrolling. A card is a Card object that can be re-pointed at another item.
+ * Filtering swaps the predicate of a FilteredList, so no nodes are rebuilt.
+ */
+public final class VirtualGrid<T> extends ListView<List<T>> {
+
+    /**
+     * A reusable card; show() is called whenever the card is recycled for another item.
+     */
+    public interface Card<T> {
+        Node getNode();
+
+        void show(T item);
+    }
+
+    private final ObservableList<T> source = FXCollections.observableArrayList();
+    private final FilteredList<T> filtered = new FilteredList<>(source);
+    private final Supplier<Card<T>> cardFactory;
+    private final double cardWidth;
+    private final double gap;
+    private int columns = 1;
+
+    public VirtualGrid(Supplier<Card<T>> cardFactory, double cardWidth, double gap) {
+        this.cardFactory = cardFactory;
+        this.cardWidth = cardWidth;
+        this.gap = gap;
+
+        getStyleClass().add("virtual-grid");
+        setFocusTraversable(false);
+        setCellFactory(list -> new RowCell());
+        filtered.addListener((ListChangeListener<T>) change -> rebuildRows());
+        widthProperty().addListener((obs, oldWidth, newWidth) -> {
+            // Leave room for the vertical scroll bar
+            int fit = Math.max(1, (int) ((newWidth.doubleValue() - 20 + gap) / (cardWidth + gap)));
+            if (fit != columns) {
+                columns = fit;
+                rebuildRows();
+            }
+        });
+    }
+
+    public void setSource(List<T> items) {
+        source.setAll(items);
+    }
+
+    // Show only the items matching the predicate (null shows all)
+    public void setFilter(Predicate<T> filter) {
+        filtered.setPredicate(filter);
+    }
+
+    public int getShownCount() {
+        return filtered.size();
+    }
+
+    // Group the filtered items into rows of the current column count
+    private void rebuildRows() {
+        List<List<T>> rows = new ArrayList<>();
+        for (int i = 0; i < filtered.size(); i += columns) {
+            rows.add(List.copyOf(filtered.subList(i, Math.min(i + columns, filtered.size()))));
+        }
+        getItems().setAll(rows);
+    }
+
+    // One row of cards; keeps its cards and re-points them when the row is reused
+    private final class RowCell extends ListCell<List<T>> {
+        private final HBox box = new HBox(gap);
+        private final List<Card<T>> cards = new ArrayList<>();
+
+        private RowCell() {
+            box.setAlignment(Pos.CENTER);
+            setPadding(new Insets(gap / 2, 0, gap / 2, 0));
+        }
+
+        @Override
+        protected void updateItem(List<T> row, boolean empty) {
+            super.updateItem(row, empty);
+            if (empty || row == null) {
+                setGraphic(null);
+                return;
+            }
+
+            while (cards.size() < row.size()) {
+                cards.add(cardFactory.get());
+            }
+            List<Node> shown = new ArrayList<>(row.size());
+            for (int i = 0; i < row.size(); i++) {
+                Card<T> card = cards.get(i);
+                card.show(row.get(i));
+                shown.add(card.getNode());
+            }
+            // Only touch the children when the number of cards changes
+            if (!box.getChildren().equals(shown)) {
+                box.getChildren().setAll(shown);
+            }
+            setGraphic(box);
+        }
+    }
+}
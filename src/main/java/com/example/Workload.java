@@ -0,0 +1,230 @@
+package com.example;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synthetic restaurant traffic for SoakTest.
+ * Seeds a database with clients and a menu with photos, then produces a stream of
+ * operations: menu browsing, multi-line orders, order lookups, the kitchen completing
+ * orders, the admin order list, and reservations that are later cancelled.
+ * Popularity is skewed: clients and menu items are drawn from a Zipf distribution, so a
+ * few regulars and best-sellers account for most of the traffic.
+ * The same seed always produces the same clients and menu; each terminal draws its
+ * operations from its own seeded random source.
+ */
+public class Workload {
+
+    /**
+     * Size and shape of the workload.
+     * @param skew Zipf exponent for client and menu item popularity (0 = uniform)
+     * @param mix relative weights of BROWSE_MENU, PLACE_ORDER, VIEW_ORDER, COMPLETE_ORDER,
+     *            LIST_ORDERS and RESERVE, in that order
+     */
+    public record Config(long seed, int clients, int menuItems, double skew, int maxLines, int tables,
+            double[] mix) {
+
+        public static Config defaults() {
+            return new Config(42, 2000, 40, 1.1, 5, 10, new double[] { 30, 35, 10, 15, 5, 5 });
+        }
+    }
+
+    public enum Kind {
+        BROWSE_MENU, PLACE_ORDER, VIEW_ORDER, COMPLETE_ORDER, LIST_ORDERS, RESERVE, CANCEL_RESERVATION
+    }
+
+    public record Guest(String name, String number) {
+    }
+
+    /**
+     * One step of a terminal. Fields not used by the kind are null or 0; orderId is -1
+     * when a VIEW_ORDER or COMPLETE_ORDER found no order to act on.
+     */
+    public record Operation(Kind kind, Guest guest, List<OrderItem> lines, int orderId, int tableId,
+            int partySize) {
+    }
+
+    private static final String[] FIRST_NAMES = { "Alex", "Sam", "Maria", "John", "Aisha", "Wei", "Fatima",
+            "Lucas", "Emma", "Omar", "Yuki", "Priya", "Mateo", "Chloe", "Noah", "Zara", "Ivan", "Lena" };
+    private static final String[] LAST_NAMES = { "Smith", "Garcia", "Chen", "Khan", "Rossi", "Novak", "Kim",
+            "Silva", "Dubois", "Okafor", "Jensen", "Tanaka", "Haddad", "Murphy", "Kowalski", "Patel" };
+    private static final String[] CATEGORIES = { "Starters", "Mains", "Sides", "Desserts", "Drinks" };
+    private static final String[] DISHES = { "Soup", "Salad", "Burger", "Pizza", "Pasta", "Taco", "Curry",
+            "Steak", "Risotto", "Wrap", "Cake", "Tart", "Lemonade", "Tea" };
+    private static final int PHOTO_WIDTH = 1200;
+    private static final int PHOTO_HEIGHT = 900;
+    private static final int RECENT_ORDERS = 1024;
+
+    private final Config config;
+    private final List<Guest> guests;
+    private final List<MenuItem> menu;
+    private final double[] guestWeights;
+    private final double[] menuWeights;
+    private final double[] mixWeights;
+
+    // Orders placed by this run: a ring of recent ids to look up, and a FIFO the kitchen completes
+    private final AtomicIntegerArray recentOrders = new AtomicIntegerArray(RECENT_ORDERS);
+    private final AtomicLong placedCount = new AtomicLong();
+    private final Queue<Integer> kitchenQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Guest> heldReservations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param menu the menu of the system under test (prices and availability are read
+     *             from it; unavailable items are never ordered)
+     */
+    public Workload(Config config, List<MenuItem> menu) {
+        this.config = config;
+        this.guests = guests(config);
+        this.menu = menu.stream().filter(MenuItem::isAvailable).toList();
+        if (this.menu.isEmpty()) {
+            throw new IllegalArgumentException("The menu has no available items");
+        }
+        this.guestWeights = zipfCumulative(guests.size(), config.skew());
+        this.menuWeights = zipfCumulative(this.menu.size(), config.skew());
+        this.mixWeights = cumulative(config.mix());
+    }
+
+    // The clients of a workload; deterministic for a seed
+    public static List<Guest> guests(Config config) {
+        SplittableRandom random = new SplittableRandom(config.seed());
+        List<Guest> guests = new ArrayList<>();
+        for (int i = 0; i < config.clients(); i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            // Unique numbers; names repeat like they do in real life
+            guests.add(new Guest(name, String.format("07%08d", i)));
+        }
+        return guests;
+    }
+
+    /**
+     * Fill the database opened by DatabaseManager with the workload's clients and menu
+     * (each item with a photo). Existing rows with the same names are left as they are.
+     */
+    public static void seed(Config config) throws IOException {
+        for (Guest guest : guests(config)) {
+            if (!DatabaseManager.clientExists(guest.name(), guest.number())) {
+                DatabaseManager.addClient(guest.name(), guest.number());
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (MenuItem item : DatabaseManager.getAllMenuItems()) {
+            existing.add(item.getName());
+        }
+        SplittableRandom random = new SplittableRandom(config.seed());
+        for (int i = 0; i < config.menuItems(); i++) {
+            String name = DISHES[i % DISHES.length] + " " + (i / DISHES.length + 1);
+            double price = 4.0 + random.nextInt(30) + (random.nextBoolean() ? 0.5 : 0.0);
+            if (!existing.contains(name)) {
+                DatabaseManager.addMenuItem(name, CATEGORIES[i % CATEGORIES.length], price, true, photo(i));
+            }
+        }
+    }
+
+    // Pick the next operation for a terminal using the terminal's own random source
+    public Operation next(SplittableRandom random) {
+        Kind kind = Kind.values()[pick(mixWeights, random)];
+        Guest guest = guests.get(pick(guestWeights, random));
+
+        switch (kind) {
+            case PLACE_ORDER: {
+                List<OrderItem> lines = new ArrayList<>();
+                int count = 1 + random.nextInt(config.maxLines());
+                for (int i = 0; i < count; i++) {
+                    MenuItem item = menu.get(pick(menuWeights, random));
+                    lines.add(new OrderItem(item.getName(), 1 + random.nextInt(3), item.getPrice()));
+                }
+                return new Operation(kind, guest, lines, 0, 0, 0);
+            }
+            case VIEW_ORDER: {
+                long placed = placedCount.get();
+                int orderId = placed == 0 ? -1
+                        : recentOrders.get((int) random.nextLong(Math.min(placed, RECENT_ORDERS)));
+                return new Operation(kind, guest, null, orderId, 0, 0);
+            }
+            case COMPLETE_ORDER: {
+                Integer orderId = kitchenQueue.poll();
+                return new Operation(kind, guest, null, orderId == null ? -1 : orderId, 0, 0);
+            }
+            case RESERVE: {
+                // Half of the reservation traffic is guests leaving, oldest booking first
+                if (random.nextBoolean()) {
+                    Guest leaving = heldReservations.poll();
+                    if (leaving != null) {
+                        return new Operation(Kind.CANCEL_RESERVATION, leaving, null, 0, 0, 0);
+                    }
+                }
+                return new Operation(kind, guest, null, 0, 1 + random.nextInt(config.tables()),
+                        1 + random.nextInt(6));
+            }
+            default:
+                return new Operation(kind, guest, null, 0, 0, 0);
+        }
+    }
+
+    // Called by the terminal once an order is placed, so later lookups and the kitchen see it
+    public void orderPlaced(int orderId) {
+        long slot = placedCount.getAndIncrement();
+        recentOrders.set((int) (slot % RECENT_ORDERS), orderId);
+        kitchenQueue.add(orderId);
+    }
+
+    public void reservationHeld(Guest guest) {
+        heldReservations.add(guest);
+    }
+
+    // Cumulative Zipf weights of ranks 1..n
+    private static double[] zipfCumulative(int n, double skew) {
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, skew);
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    // Index drawn with probability proportional to its weight
+    private static int pick(double[] cumulative, SplittableRandom random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, target);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    // A photo-sized JPEG that differs per item, so every item stores its own image
+    static byte[] photo(int seed) throws IOException {
+        BufferedImage image = new BufferedImage(PHOTO_WIDTH, PHOTO_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int y = 0; y < PHOTO_HEIGHT; y += 30) {
+            g.setColor(new Color((seed * 37 + y) % 256, (seed * 91 + y / 2) % 256, (seed * 13) % 256));
+            g.fillRect(0, y, PHOTO_WIDTH, 30);
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
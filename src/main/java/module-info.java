@@ -2,6 +2,11 @@ module com.example {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires java.desktop;
+    requires jdk.httpserver;
+    requires java.net.http;
+    requires java.logging;
+    requires jdk.jfr;
 
     opens com.example to javafx.fxml;
 